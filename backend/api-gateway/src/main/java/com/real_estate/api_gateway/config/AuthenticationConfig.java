@@ -0,0 +1,37 @@
+package com.real_estate.api_gateway.config;
+
+import com.real_estate.common.security.FirebaseSigningKeys;
+import com.real_estate.common.security.FirebaseTokenVerifier;
+import com.real_estate.common.security.PlatformTokenVerifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Token verifiers shared with auth-service, configured for the gateway.
+ */
+@Configuration
+public class AuthenticationConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public FirebaseSigningKeys firebaseSigningKeys(
+            @Value("${firebase.keys.url:https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com}") String keysUrl,
+            @Value("${firebase.keys.max-stale:PT6H}") Duration maxStale) {
+        return new FirebaseSigningKeys(keysUrl, maxStale);
+    }
+
+    @Bean
+    public FirebaseTokenVerifier firebaseTokenVerifier(FirebaseSigningKeys signingKeys,
+                                                       @Value("${firebase.project-id}") String projectId,
+                                                       @Value("${firebase.token.clock-skew:PT30S}") Duration clockSkew) {
+        return new FirebaseTokenVerifier(signingKeys, projectId, clockSkew);
+    }
+
+    // Platform access tokens issued by auth-service
+    @Bean
+    public PlatformTokenVerifier platformTokenVerifier(@Value("${auth.token.keys:}") String keys) {
+        return new PlatformTokenVerifier(keys);
+    }
+}
@@ -0,0 +1,141 @@
+package com.real_estate.api_gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.real_estate.api_gateway.security.IdentitySigner;
+import com.real_estate.common.security.FirebaseTokenVerifier;
+import com.real_estate.common.security.InvalidTokenException;
+import com.real_estate.common.security.PlatformTokenVerifier;
+import com.real_estate.common.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Authenticates every routed request once. Client-supplied identity headers are
+ * always removed; a valid bearer token is replaced by signed identity headers for
+ * the downstream services. Verified tokens are cached by hash until their exp
+ * claim, so a Firebase token is only checked cryptographically on its first use;
+ * platform access tokens from auth-service take one HMAC and skip the cache. Invalid
+ * tokens are rejected with 401; when no signing key is available the request is
+ * forwarded without identity and the Authorization header is left for the
+ * service to check.
+ */
+@Component
+public class AuthenticationFilter implements GlobalFilter, Ordered {
+
+    private final FirebaseTokenVerifier verifier;
+    private final PlatformTokenVerifier platformVerifier;
+    private final IdentitySigner signer;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public AuthenticationFilter(FirebaseTokenVerifier verifier,
+                                PlatformTokenVerifier platformVerifier,
+                                IdentitySigner signer,
+                                @Value("${gateway.auth.token-cache.max-size:100000}") long maxSize,
+                                MeterRegistry meterRegistry) {
+        this.verifier = verifier;
+        this.platformVerifier = platformVerifier;
+        this.signer = signer;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, VerifiedToken>writing((key, token) -> untilExpiry(token)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "gatewayVerifiedTokens");
+    }
+
+    @Override
+    public int getOrder() {
+        // Before routing and load balancing
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        VerifiedToken identity = null;
+
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith("Bearer ") && request.getMethod() != HttpMethod.OPTIONS) {
+            try {
+                identity = verify(authorization.substring(7));
+            } catch (InvalidTokenException e) {
+                return unauthorized(exchange.getResponse(), e.getMessage());
+            }
+        }
+
+        VerifiedToken verified = identity;
+        ServerHttpRequest forwarded = request.mutate()
+                .headers(headers -> {
+                    IdentitySigner.strip(headers);
+                    if (verified != null && signer.isEnabled()) {
+                        signer.sign(verified, headers);
+                    }
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    // Null when the token could not be checked for lack of a signing key
+    private VerifiedToken verify(String token) {
+        if (platformVerifier.isPlatformToken(token)) {
+            // Refresh tokens are only accepted by /api/auth/refresh
+            return platformVerifier.verify(token, PlatformTokenVerifier.ACCESS).toVerifiedToken();
+        }
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        VerifiedToken verified = verifier.verify(token);
+        if (verified != null && !untilExpiry(verified).isZero()) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    private static Mono<Void> unauthorized(ServerHttpResponse response, String message) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"error\":\"" + message.replace("\"", "'") + "\"}";
+        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static Duration untilExpiry(VerifiedToken token) {
+        Duration remaining = Duration.between(Instant.now(), Instant.ofEpochSecond(token.getExpiresAt()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
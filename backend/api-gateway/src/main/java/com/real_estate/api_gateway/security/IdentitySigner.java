@@ -0,0 +1,55 @@
+package com.real_estate.api_gateway.security;
+
+import com.real_estate.common.security.IdentityHeaders;
+import com.real_estate.common.security.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Signs the identity headers the gateway forwards to downstream services with the
+ * key shared with them; see {@link IdentityHeaders} for the scheme.
+ */
+@Component
+public class IdentitySigner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentitySigner.class);
+
+    private final IdentityHeaders identityHeaders;
+
+    public IdentitySigner(@Value("${identity.signing-key:}") String signingKey) {
+        if (signingKey.isBlank()) {
+            log.warn("identity.signing-key is not set; verified identity will not be forwarded downstream");
+            this.identityHeaders = null;
+            return;
+        }
+        this.identityHeaders = new IdentityHeaders(signingKey);
+    }
+
+    public boolean isEnabled() {
+        return identityHeaders != null;
+    }
+
+    // Drops every identity header, so clients cannot send their own X-User-* or X-Identity-* headers
+    public static void strip(HttpHeaders headers) {
+        List<String> names = headers.keySet().stream().filter(IdentityHeaders::isIdentityHeader).toList();
+        names.forEach(headers::remove);
+    }
+
+    // The role is only known for platform access tokens; Firebase ID tokens forward an empty one
+    public void sign(VerifiedToken token, HttpHeaders headers) {
+        String email = token.getEmail() == null ? "" : token.getEmail();
+        String role = token.getRole() == null ? "" : token.getRole();
+        long issuedAt = System.currentTimeMillis() / 1000;
+
+        headers.set(IdentityHeaders.USER_ID, token.getUid());
+        headers.set(IdentityHeaders.USER_EMAIL, email);
+        headers.set(IdentityHeaders.USER_ROLE, role);
+        headers.set(IdentityHeaders.ISSUED_AT, Long.toString(issuedAt));
+        headers.set(IdentityHeaders.SIGNATURE, identityHeaders.sign(token.getUid(), email, role, issuedAt));
+    }
+}
@@ -0,0 +1,104 @@
+package com.real_estate.api_gateway.security;
+
+import com.real_estate.common.security.Identity;
+import com.real_estate.common.security.IdentityHeaders;
+import com.real_estate.common.security.InvalidTokenException;
+import com.real_estate.common.security.VerifiedToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdentitySignerTest {
+
+    private static final String KEY = "test-identity-signing-key";
+
+    private final IdentitySigner signer = new IdentitySigner(KEY);
+    private final IdentityHeaders services = new IdentityHeaders(KEY);
+
+    @Test
+    void signedHeadersAreAcceptedByTheServices() {
+        HttpHeaders headers = signed("user-1", "user@example.com", "SELLER");
+
+        Identity identity = read(headers, 60);
+
+        assertThat(identity.getUid()).isEqualTo("user-1");
+        assertThat(identity.getEmail()).isEqualTo("user@example.com");
+        assertThat(identity.getRole()).isEqualTo("SELLER");
+    }
+
+    @Test
+    void missingEmailAndRoleAreSignedAsEmpty() {
+        HttpHeaders headers = signed("user-1", null, null);
+
+        assertThat(headers.getFirst(IdentityHeaders.USER_EMAIL)).isEmpty();
+        assertThat(headers.getFirst(IdentityHeaders.USER_ROLE)).isEmpty();
+        Identity identity = read(headers, 60);
+        assertThat(identity.getEmail()).isEmpty();
+        assertThat(identity.getRole()).isEmpty();
+    }
+
+    @Test
+    void tamperedHeadersAreRefused() {
+        HttpHeaders otherUser = signed("user-1", "user@example.com", "BUYER");
+        otherUser.set(IdentityHeaders.USER_ID, "admin");
+        assertThatThrownBy(() -> read(otherUser, 60)).isInstanceOf(InvalidTokenException.class);
+
+        HttpHeaders elevated = signed("user-1", "user@example.com", "BUYER");
+        elevated.set(IdentityHeaders.USER_ROLE, "ADMIN");
+        assertThatThrownBy(() -> read(elevated, 60)).isInstanceOf(InvalidTokenException.class);
+
+        HttpHeaders laterTimestamp = signed("user-1", "user@example.com", "BUYER");
+        long issuedAt = Long.parseLong(laterTimestamp.getFirst(IdentityHeaders.ISSUED_AT));
+        laterTimestamp.set(IdentityHeaders.ISSUED_AT, Long.toString(issuedAt + 30));
+        assertThatThrownBy(() -> read(laterTimestamp, 60)).isInstanceOf(InvalidTokenException.class);
+
+        HttpHeaders garbage = signed("user-1", "user@example.com", "BUYER");
+        garbage.set(IdentityHeaders.SIGNATURE, "not base64url!");
+        assertThatThrownBy(() -> read(garbage, 60)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void expiredSignatureIsRefused() {
+        long issuedAt = System.currentTimeMillis() / 1000 - 300;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdentityHeaders.USER_ID, "user-1");
+        headers.set(IdentityHeaders.USER_EMAIL, "");
+        headers.set(IdentityHeaders.ISSUED_AT, Long.toString(issuedAt));
+        headers.set(IdentityHeaders.SIGNATURE, services.sign("user-1", "", "", issuedAt));
+
+        assertThatThrownBy(() -> read(headers, 60))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void stripRemovesEveryIdentityHeader() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("x-user-id", "admin");
+        headers.set("X-User-Role", "ADMIN");
+        headers.set("X-Identity-Signature", "forged");
+        headers.set(HttpHeaders.ACCEPT, "application/json");
+
+        IdentitySigner.strip(headers);
+
+        assertThat(headers.keySet()).containsExactly(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void disabledWithoutAKey() {
+        assertThat(new IdentitySigner("").isEnabled()).isFalse();
+        assertThat(signer.isEnabled()).isTrue();
+    }
+
+    private HttpHeaders signed(String uid, String email, String role) {
+        HttpHeaders headers = new HttpHeaders();
+        signer.sign(new VerifiedToken(uid, email, null, null, role, 0), headers);
+        return headers;
+    }
+
+    private Identity read(HttpHeaders headers, long maxAgeSeconds) {
+        return services.read(headers::getFirst, headers.keySet(), maxAgeSeconds);
+    }
+}
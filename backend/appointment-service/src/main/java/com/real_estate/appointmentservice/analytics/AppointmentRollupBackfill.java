@@ -0,0 +1,177 @@
+package com.real_estate.appointmentservice.analytics;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.entity.AppointmentDailyStats;
+import com.real_estate.appointmentservice.lifecycle.SchedulerLease;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the daily rollups from the appointments collection. Appointments are
+ * read in _id order, one bounded batch at a time, and counted into a staging
+ * collection that replaces the live one when done, so readers never see a half
+ * built result. Runs on startup when no rollups exist yet (or when forced), on
+ * one replica only.
+ *
+ * Bookings keep being served meanwhile. Their increments land in the collection
+ * the rebuild replaces, and a scan may or may not have seen them, so after the
+ * swap every seller and property with an appointment written since the rebuild
+ * started is recounted from scratch, round after round until no new writes come
+ * in. Each round pages through those writes on the (updatedAt, _id) index and
+ * recounts one page's keys at a time.
+ */
+@Slf4j
+@Component
+public class AppointmentRollupBackfill {
+
+    private static final String LEASE = "appointment-rollup-backfill";
+    private static final String STAGING = AppointmentRollups.COLLECTION + "_rebuild";
+    private static final int MAX_CATCH_UP_ROUNDS = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRollups rollups;
+    private final SchedulerLease lease;
+    private final int batchSize;
+    private final boolean rebuildOnStartup;
+    private final Duration leaseTtl;
+    private final Duration settleLag;
+
+    public AppointmentRollupBackfill(MongoTemplate mongoTemplate,
+                                     AppointmentRollups rollups,
+                                     SchedulerLease lease,
+                                     @Value("${appointment.rollup.backfill.batch-size:1000}") int batchSize,
+                                     @Value("${appointment.rollup.backfill.on-startup:false}") boolean rebuildOnStartup,
+                                     @Value("${appointment.rollup.backfill.lease-ttl:PT5M}") Duration leaseTtl,
+                                     @Value("${appointment.sync.settle-lag:PT2S}") Duration settleLag) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollups = rollups;
+        this.lease = lease;
+        this.batchSize = batchSize;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.leaseTtl = leaseTtl;
+        this.settleLag = settleLag;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfMissing() {
+        if (!rebuildOnStartup && mongoTemplate.estimatedCount(AppointmentRollups.COLLECTION) > 0) {
+            return;
+        }
+        rebuild();
+    }
+
+    public void rebuild() {
+        if (!lease.tryAcquire(LEASE, leaseTtl)) {
+            return;
+        }
+        mongoTemplate.dropCollection(STAGING);
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        ObjectId after = null;
+        long processed = 0;
+        boolean complete = false;
+        while (!complete) {
+            Query batch = Query.query(after == null ? new Criteria() : Criteria.where("_id").gt(after))
+                    .with(Sort.by("_id"))
+                    .limit(batchSize);
+            batch.fields().include("sellerId", "propertyId", "scheduledAt", "status");
+            List<Appointment> appointments = mongoTemplate.find(batch, Appointment.class);
+            if (appointments.isEmpty()) {
+                complete = true;
+                break;
+            }
+
+            AppointmentRollups.Delta delta = rollups.delta();
+            appointments.forEach(delta::add);
+            rollups.apply(delta, STAGING);
+
+            processed += appointments.size();
+            after = appointments.get(appointments.size() - 1).getId();
+            complete = appointments.size() < batchSize;
+            // Renew the lease between batches; give up if another replica took over
+            if (!complete && !lease.tryAcquire(LEASE, leaseTtl)) {
+                log.warn("Lost the rollup backfill lease after {} appointments; leaving rollups unchanged", processed);
+                return;
+            }
+        }
+
+        if (processed == 0 || !mongoTemplate.collectionExists(STAGING)) {
+            return;
+        }
+        mongoTemplate.getCollection(STAGING).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), AppointmentRollups.COLLECTION),
+                new RenameCollectionOptions().dropTarget(true));
+        log.info("Rebuilt appointment rollups from {} appointments", processed);
+        catchUp(startedAt);
+    }
+
+    // Recount the sellers and properties written to since the given time
+    private void catchUp(LocalDateTime since) {
+        for (int round = 0; round < MAX_CATCH_UP_ROUNDS; round++) {
+            LocalDateTime next = LocalDateTime.now();
+            Round outcome = recountWrittenSince(since.minus(settleLag));
+            if (outcome == Round.QUIET) {
+                return;
+            }
+            if (outcome == Round.LEASE_LOST) {
+                log.warn("Lost the rollup backfill lease while catching up; counts may drift until the next rebuild");
+                return;
+            }
+            since = next;
+        }
+        log.warn("Appointments kept changing while the rollups caught up; counts may drift until the next rebuild");
+    }
+
+    private enum Round { QUIET, RECOUNTED, LEASE_LOST }
+
+    // One round: page through the appointments written from the given time on in
+    // (updatedAt, _id) order and recount each page's keys, renewing the lease per page
+    private Round recountWrittenSince(LocalDateTime from) {
+        Appointment last = null;
+        while (true) {
+            Criteria criteria = last == null
+                    ? Criteria.where("updatedAt").gte(from)
+                    : new Criteria().orOperator(
+                            Criteria.where("updatedAt").gt(last.getUpdatedAt()),
+                            Criteria.where("updatedAt").is(last.getUpdatedAt()).and("_id").gt(last.getId()));
+            Query page = Query.query(criteria)
+                    .with(Sort.by("updatedAt", "_id"))
+                    .limit(batchSize);
+            page.fields().include("sellerId", "propertyId", "updatedAt");
+            List<Appointment> touched = mongoTemplate.find(page, Appointment.class);
+            if (touched.isEmpty()) {
+                return last == null ? Round.QUIET : Round.RECOUNTED;
+            }
+            rollups.recount(AppointmentDailyStats.Scope.SELLER, keys(touched.stream().map(Appointment::getSellerId)));
+            rollups.recount(AppointmentDailyStats.Scope.PROPERTY, keys(touched.stream().map(Appointment::getPropertyId)));
+            if (!lease.tryAcquire(LEASE, leaseTtl)) {
+                return Round.LEASE_LOST;
+            }
+            if (touched.size() < batchSize) {
+                return Round.RECOUNTED;
+            }
+            last = touched.get(touched.size() - 1);
+        }
+    }
+
+    private static List<UUID> keys(Stream<UUID> keys) {
+        return keys.filter(Objects::nonNull).distinct().toList();
+    }
+}
@@ -0,0 +1,206 @@
+package com.real_estate.appointmentservice.analytics;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.entity.AppointmentDailyStats;
+import com.real_estate.appointmentservice.entity.AppointmentDailyStats.Scope;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the per-seller and per-property daily status counts in step with the
+ * appointments collection. Writers describe what they changed as a {@link Delta};
+ * the delta is merged per bucket and applied as one unordered bulk of $inc upserts.
+ */
+@Slf4j
+@Component
+public class AppointmentRollups {
+
+    public static final String COLLECTION = "appointment_daily_stats";
+
+    private final MongoTemplate mongoTemplate;
+
+    public AppointmentRollups(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Delta delta() {
+        return new Delta();
+    }
+
+    // Apply a delta after a successful write; a failure here must not fail the write itself
+    public void record(Delta delta) {
+        try {
+            apply(delta, COLLECTION);
+        } catch (DataAccessException e) {
+            log.warn("Could not update appointment rollups; counts drift until the next rebuild", e);
+        }
+    }
+
+    void apply(Delta delta, String collection) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        int writes = 0;
+        for (Map.Entry<Bucket, EnumMap<Appointment.Status, Long>> entry : delta.counts.entrySet()) {
+            Bucket bucket = entry.getKey();
+            Update update = new Update()
+                    .setOnInsert("scope", bucket.scope)
+                    .setOnInsert("key", bucket.key)
+                    .setOnInsert("day", bucket.day);
+            boolean changed = false;
+            for (Map.Entry<Appointment.Status, Long> count : entry.getValue().entrySet()) {
+                if (count.getValue() != 0) {
+                    update.inc("counts." + count.getKey().name(), count.getValue());
+                    changed = true;
+                }
+            }
+            if (changed) {
+                ops.upsert(Query.query(Criteria.where("_id").is(bucket.id())), update);
+                writes++;
+            }
+        }
+        if (writes > 0) {
+            ops.execute();
+        }
+    }
+
+    /**
+     * Recount every daily bucket of the given sellers or properties from the
+     * appointments collection and overwrite what is stored for them; buckets left
+     * with nothing scheduled are removed. MongoDB does the counting, so only one
+     * row per key, day and status is streamed back.
+     */
+    void recount(Scope scope, Collection<UUID> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        String field = scope == Scope.SELLER ? "sellerId" : "propertyId";
+        // Days in the JVM zone, the one LocalDateTime values are stored in
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(field).in(keys).and("scheduledAt").ne(null).and("status").ne(null)),
+                Aggregation.project("status")
+                        .and(field).as("key")
+                        .and(DateOperators.dateOf("scheduledAt")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+                                .toString("%Y-%m-%d")).as("day"),
+                Aggregation.group("key", "day", "status").count().as("count"),
+                Aggregation.project("key", "day", "status", "count"));
+        Map<Bucket, EnumMap<Appointment.Status, Long>> counts = new HashMap<>();
+        try (Stream<DayCount> rows = mongoTemplate.aggregateStream(aggregation, Appointment.class, DayCount.class)) {
+            rows.forEach(row -> counts.computeIfAbsent(new Bucket(scope, row.key(), LocalDate.parse(row.day())),
+                            b -> new EnumMap<>(Appointment.Status.class))
+                    .merge(row.status(), row.count(), Long::sum));
+        }
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        Map<UUID, List<String>> current = new HashMap<>();
+        for (Map.Entry<Bucket, EnumMap<Appointment.Status, Long>> entry : counts.entrySet()) {
+            Bucket bucket = entry.getKey();
+            Document byStatus = new Document();
+            entry.getValue().forEach((status, n) -> byStatus.put(status.name(), n));
+            ops.upsert(Query.query(Criteria.where("_id").is(bucket.id())), new Update()
+                    .set("scope", bucket.scope)
+                    .set("key", bucket.key)
+                    .set("day", bucket.day)
+                    .set("counts", byStatus));
+            current.computeIfAbsent(bucket.key, k -> new ArrayList<>()).add(bucket.id());
+        }
+        for (UUID key : keys) {
+            // All ids of one key share the "scope:key:" prefix
+            String prefix = scope.name().toLowerCase() + ":" + key + ":";
+            ops.remove(Query.query(Criteria.where("_id").gte(prefix).lt(prefix + Character.MAX_VALUE)
+                    .nin(current.getOrDefault(key, List.of()))));
+        }
+        ops.execute();
+    }
+
+    // Daily buckets for one seller or property, from and to inclusive
+    public List<AppointmentDailyStats> find(Scope scope, UUID key, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("_id")
+                        .gte(AppointmentDailyStats.idOf(scope, key, from))
+                        .lte(AppointmentDailyStats.idOf(scope, key, to)))
+                .with(Sort.by("_id"));
+        return mongoTemplate.find(query, AppointmentDailyStats.class, COLLECTION);
+    }
+
+    /**
+     * Count changes accumulated by a writer. Each appointment counts once in its
+     * seller's and once in its property's bucket for the day it is scheduled on.
+     */
+    public static class Delta {
+
+        private final Map<Bucket, EnumMap<Appointment.Status, Long>> counts = new HashMap<>();
+
+        // A new appointment
+        public Delta add(Appointment appointment) {
+            return count(appointment, appointment.getStatus(), 1);
+        }
+
+        // The appointment as it was before a write
+        public Delta remove(Appointment appointment) {
+            return count(appointment, appointment.getStatus(), -1);
+        }
+
+        // Only the status changed, from previous to the appointment's current status
+        public Delta move(Appointment appointment, Appointment.Status previous) {
+            count(appointment, previous, -1);
+            return count(appointment, appointment.getStatus(), 1);
+        }
+
+        private Delta count(Appointment appointment, Appointment.Status status, long n) {
+            if (appointment.getScheduledAt() == null || status == null) {
+                return this;
+            }
+            LocalDate day = appointment.getScheduledAt().toLocalDate();
+            if (appointment.getSellerId() != null) {
+                bump(new Bucket(Scope.SELLER, appointment.getSellerId(), day), status, n);
+            }
+            if (appointment.getPropertyId() != null) {
+                bump(new Bucket(Scope.PROPERTY, appointment.getPropertyId(), day), status, n);
+            }
+            return this;
+        }
+
+        private void bump(Bucket bucket, Appointment.Status status, long n) {
+            counts.computeIfAbsent(bucket, b -> new EnumMap<>(Appointment.Status.class))
+                    .merge(status, n, Long::sum);
+        }
+    }
+
+    // One row of the recount aggregation
+    record DayCount(UUID key, String day, Appointment.Status status, long count) {
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class Bucket {
+        private final Scope scope;
+        private final UUID key;
+        private final LocalDate day;
+
+        String id() {
+            return AppointmentDailyStats.idOf(scope, key, day);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.real_estate.appointmentservice.booking;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.real_estate.appointmentservice.config.MongoTopology;
+import com.real_estate.appointmentservice.entity.Appointment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Subscription;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps the {@link AppointmentConflictIndex} in step with every replica's writes
+ * by following the appointments change stream, so conflicts and availability can
+ * be answered from memory. Our own writes come back too and are simply applied
+ * again. Change streams need a replica set, so this is opt-in; while it is not
+ * running the index is only advisory and {@link SlotClaims} decides every 409.
+ */
+@Slf4j
+@Component
+public class AppointmentCalendarSync {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(10);
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentConflictIndex conflictIndex;
+    private final MessageListenerContainer container;
+    private final boolean enabled;
+
+    public AppointmentCalendarSync(MongoTemplate mongoTemplate,
+                                   AppointmentConflictIndex conflictIndex,
+                                   @Value("${appointment.calendar.change-stream.enabled:false}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.conflictIndex = conflictIndex;
+        this.enabled = enabled;
+        // A failed stream stops delivering, so the index falls back to advisory
+        this.container = new DefaultMessageListenerContainer(mongoTemplate, new SimpleAsyncTaskExecutor(), e -> {
+            log.error("Appointment change stream failed; booking conflicts are now decided in MongoDB only", e);
+            conflictIndex.setSynced(false);
+        });
+    }
+
+    // Runs before the startup rebuild, so no write can fall between the load and the stream
+    @PostConstruct
+    public void start() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        if (!MongoTopology.supportsChangeStreams(mongoTemplate)) {
+            log.warn("MongoDB is not a replica set; booking conflicts are decided in MongoDB only");
+            return;
+        }
+        ChangeStreamRequest<Appointment> request = ChangeStreamRequest.builder(this::onChange)
+                .collection("appointments")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        Subscription subscription = container.register(request, Appointment.class);
+        container.start();
+        subscription.await(START_TIMEOUT);
+        if (!subscription.isActive()) {
+            log.warn("Appointment change stream did not start; booking conflicts are decided in MongoDB only");
+            return;
+        }
+        conflictIndex.setSynced(true);
+        log.info("Listening for appointment changes to keep the booking calendar in sync");
+    }
+
+    @PreDestroy
+    public void stop() {
+        conflictIndex.setSynced(false);
+        container.stop();
+    }
+
+    void onChange(Message<ChangeStreamDocument<Document>, Appointment> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        BsonDocument key = event == null ? null : event.getDocumentKey();
+        if (key == null) {
+            // drop/rename/invalidate end the stream; the calendar can no longer be trusted
+            log.warn("Appointment change stream was invalidated; booking conflicts are now decided in MongoDB only");
+            conflictIndex.setSynced(false);
+            return;
+        }
+        BsonValue id = key.get("_id");
+        if (id == null || !id.isObjectId()) {
+            return;
+        }
+        // A null body on an update means the document was deleted before the lookup
+        Appointment appointment = event.getOperationType() == OperationType.DELETE ? null : message.getBody();
+        conflictIndex.applyChange(id.asObjectId().getValue(), appointment);
+    }
+}
@@ -0,0 +1,281 @@
+package com.real_estate.appointmentservice.booking;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory calendar of active (PENDING / CONFIRMED) appointments per seller and
+ * per property, used to reject double bookings without querying Mongo.
+ *
+ * Every viewing lasts the configured slot duration, so two bookings overlap
+ * exactly when their start times are less than one duration apart. That makes a
+ * start-time-ordered map per seller/property an interval index: a conflict check
+ * is one O(log n) range lookup.
+ *
+ * It is empty until {@link #rebuild} has run. Other replicas' writes only reach
+ * it while {@link AppointmentCalendarSync} follows the change stream
+ * ({@link #isSynced}); without that a hit may be stale, so callers treat it as
+ * advisory and leave the decision to {@link SlotClaims}, the guard that holds
+ * across replicas.
+ */
+@Component
+public class AppointmentConflictIndex {
+
+    public static final Set<Appointment.Status> ACTIVE_STATUSES =
+            EnumSet.of(Appointment.Status.PENDING, Appointment.Status.CONFIRMED);
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final Duration slotDuration;
+
+    // seller / property id -> start time -> appointments starting then
+    private final Map<UUID, TreeMap<LocalDateTime, Set<ObjectId>>> bySeller = new HashMap<>();
+    private final Map<UUID, TreeMap<LocalDateTime, Set<ObjectId>>> byProperty = new HashMap<>();
+    private final Map<ObjectId, Booking> bookings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] slotLocks = new ReentrantLock[LOCK_STRIPES];
+
+    // Set once the first rebuild has loaded the stored appointments
+    private volatile boolean ready;
+
+    // True while the change stream delivers every replica's writes
+    private volatile boolean synced;
+
+    // Changes streamed in while a rebuild is loading, replayed over it (null value = deleted); guarded by lock
+    private Map<ObjectId, Appointment> changedDuringRebuild;
+
+    public AppointmentConflictIndex(@Value("${appointment.slot-duration:PT1H}") Duration slotDuration) {
+        this.slotDuration = slotDuration;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public Duration getSlotDuration() {
+        return slotDuration;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public void setSynced(boolean synced) {
+        this.synced = synced;
+    }
+
+    /**
+     * Runs action while holding the booking locks of the seller and the property,
+     * so a conflict check and the write that follows it cannot interleave with
+     * another booking for either of them.
+     */
+    public <T> T withSlotLock(UUID sellerId, UUID propertyId, Supplier<T> action) {
+        int a = stripe(sellerId);
+        int b = stripe(propertyId);
+        ReentrantLock first = slotLocks[Math.min(a, b)];
+        ReentrantLock second = slotLocks[Math.max(a, b)];
+        first.lock();
+        second.lock();
+        try {
+            return action.get();
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    // True if an active appointment other than ignoreId overlaps a slot starting at start
+    public boolean conflicts(UUID sellerId, UUID propertyId, LocalDateTime start, ObjectId ignoreId) {
+        lock.readLock().lock();
+        try {
+            return overlaps(bySeller.get(sellerId), start, ignoreId)
+                    || overlaps(byProperty.get(propertyId), start, ignoreId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add, move or drop an appointment depending on its current status and time
+    public void update(Appointment appointment) {
+        lock.writeLock().lock();
+        try {
+            updateLocked(appointment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(ObjectId id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A write seen on the change stream, from any replica; appointment is null when it was deleted
+    public void applyChange(ObjectId id, Appointment appointment) {
+        lock.writeLock().lock();
+        try {
+            if (appointment != null) {
+                updateLocked(appointment);
+            } else {
+                removeLocked(id);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(id, appointment);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rebuild(Stream<Appointment> appointments) {
+        lock.writeLock().lock();
+        try {
+            bySeller.clear();
+            byProperty.clear();
+            bookings.clear();
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            appointments.forEach(this::update);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                // The load may have read a document from before a change that was streamed meanwhile
+                changedDuringRebuild.forEach((id, appointment) -> {
+                    if (appointment != null) {
+                        updateLocked(appointment);
+                    } else {
+                        removeLocked(id);
+                    }
+                });
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+    }
+
+    /**
+     * Start times, ascending, of active appointments for the seller or the property
+     * that begin in (from - slot duration, to), i.e. every booking that can touch the window.
+     */
+    public List<LocalDateTime> bookedStarts(UUID sellerId, UUID propertyId, LocalDateTime from, LocalDateTime to) {
+        TreeSet<LocalDateTime> starts = new TreeSet<>();
+        LocalDateTime lower = from.minus(slotDuration);
+        lock.readLock().lock();
+        try {
+            TreeMap<LocalDateTime, Set<ObjectId>> seller = bySeller.get(sellerId);
+            TreeMap<LocalDateTime, Set<ObjectId>> property = byProperty.get(propertyId);
+            if (seller != null) {
+                starts.addAll(seller.subMap(lower, false, to, false).keySet());
+            }
+            if (property != null) {
+                starts.addAll(property.subMap(lower, false, to, false).keySet());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(starts);
+    }
+
+    private boolean overlaps(TreeMap<LocalDateTime, Set<ObjectId>> calendar, LocalDateTime start, ObjectId ignoreId) {
+        if (calendar == null) {
+            return false;
+        }
+        NavigableMap<LocalDateTime, Set<ObjectId>> window =
+                calendar.subMap(start.minus(slotDuration), false, start.plus(slotDuration), false);
+        for (Set<ObjectId> ids : window.values()) {
+            if (ids.size() > 1 || !ids.contains(ignoreId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateLocked(Appointment appointment) {
+        removeLocked(appointment.getId());
+        if (appointment.getScheduledAt() != null && ACTIVE_STATUSES.contains(appointment.getStatus())) {
+            Booking booking = new Booking(appointment.getSellerId(), appointment.getPropertyId(), appointment.getScheduledAt());
+            bookings.put(appointment.getId(), booking);
+            add(bySeller, booking.sellerId, booking.start, appointment.getId());
+            add(byProperty, booking.propertyId, booking.start, appointment.getId());
+        }
+    }
+
+    private void removeLocked(ObjectId id) {
+        Booking booking = bookings.remove(id);
+        if (booking == null) {
+            return;
+        }
+        remove(bySeller, booking.sellerId, booking.start, id);
+        remove(byProperty, booking.propertyId, booking.start, id);
+    }
+
+    private static void add(Map<UUID, TreeMap<LocalDateTime, Set<ObjectId>>> index, UUID key, LocalDateTime start, ObjectId id) {
+        index.computeIfAbsent(key, k -> new TreeMap<>())
+                .computeIfAbsent(start, s -> new HashSet<>(2))
+                .add(id);
+    }
+
+    private static void remove(Map<UUID, TreeMap<LocalDateTime, Set<ObjectId>>> index, UUID key, LocalDateTime start, ObjectId id) {
+        TreeMap<LocalDateTime, Set<ObjectId>> calendar = index.get(key);
+        if (calendar == null) {
+            return;
+        }
+        Set<ObjectId> ids = calendar.get(start);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            calendar.remove(start);
+        }
+        if (calendar.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static int stripe(UUID key) {
+        return (key.hashCode() & 0x7fffffff) % LOCK_STRIPES;
+    }
+
+    private static final class Booking {
+        private final UUID sellerId;
+        private final UUID propertyId;
+        private final LocalDateTime start;
+
+        private Booking(UUID sellerId, UUID propertyId, LocalDateTime start) {
+            this.sellerId = sellerId;
+            this.propertyId = propertyId;
+            this.start = start;
+        }
+    }
+}
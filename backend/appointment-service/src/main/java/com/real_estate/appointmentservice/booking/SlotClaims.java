@@ -0,0 +1,141 @@
+package com.real_estate.appointmentservice.booking;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.entity.SlotClaim;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Double-booking guard in Mongo, so it holds across replicas and right after a
+ * restart. Every active appointment holds a claim on its slot. A writer first
+ * stores its own claim and only then looks for another claim overlapping it for
+ * the same seller or property: of two concurrent writers at least one sees the
+ * other's claim, so at most one of them keeps the slot.
+ *
+ * The in-memory {@link AppointmentConflictIndex} stays in front as the cheap
+ * pre-check; this is the one that decides.
+ */
+@Component
+public class SlotClaims {
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration slotDuration;
+    private final Duration staleAfter;
+
+    public SlotClaims(MongoTemplate mongoTemplate,
+                      @Value("${appointment.slot-duration:PT1H}") Duration slotDuration,
+                      @Value("${appointment.slot-claims.stale-after:PT1M}") Duration staleAfter) {
+        this.mongoTemplate = mongoTemplate;
+        this.slotDuration = slotDuration;
+        this.staleAfter = staleAfter;
+    }
+
+    /**
+     * Claim the slot starting at start for the appointment, or throw 409 if an
+     * active appointment of the seller or the property overlaps it. Returns true if
+     * the claim is new, so a caller whose write then fails knows to release it.
+     */
+    public boolean claim(ObjectId appointmentId, UUID sellerId, UUID propertyId, LocalDateTime start) {
+        boolean inserted = hold(appointmentId, sellerId, propertyId, start);
+
+        Query overlapping = Query.query(Criteria.where("start").gt(start.minus(slotDuration)).lt(start.plus(slotDuration))
+                .and("appointmentId").ne(appointmentId)
+                .orOperator(Criteria.where("sellerId").is(sellerId), Criteria.where("propertyId").is(propertyId)));
+        List<SlotClaim> rivals = mongoTemplate.find(overlapping, SlotClaim.class);
+        if (rivals.stream().anyMatch(this::isLive)) {
+            if (inserted) {
+                release(appointmentId, start);
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Seller or property is already booked for this time slot");
+        }
+        return inserted;
+    }
+
+    // Drop the claim on one slot
+    public void release(ObjectId appointmentId, LocalDateTime start) {
+        mongoTemplate.remove(Query.query(Criteria.where("appointmentId").is(appointmentId).and("start").is(start)),
+                SlotClaim.class);
+    }
+
+    public void releaseAll(Collection<ObjectId> appointmentIds) {
+        mongoTemplate.remove(Query.query(Criteria.where("appointmentId").in(appointmentIds)), SlotClaim.class);
+    }
+
+    // After a successful write: keep only the claim on the appointment's current slot, and only while it is active
+    public void settle(Appointment appointment) {
+        Criteria criteria = Criteria.where("appointmentId").is(appointment.getId());
+        if (AppointmentConflictIndex.ACTIVE_STATUSES.contains(appointment.getStatus()) && appointment.getScheduledAt() != null) {
+            criteria.and("start").ne(appointment.getScheduledAt());
+        }
+        mongoTemplate.remove(Query.query(criteria), SlotClaim.class);
+    }
+
+    // Claims for active appointments booked before claims existed, or whose claim write was lost; idempotent
+    public void restore(List<Appointment> active) {
+        if (active.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SlotClaim.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Appointment appointment : active) {
+            ops.upsert(claimQuery(appointment.getId(), appointment.getScheduledAt()),
+                    claimUpdate(appointment.getSellerId(), appointment.getPropertyId(), appointment.getScheduledAt(), now));
+        }
+        ops.execute();
+    }
+
+    private boolean hold(ObjectId appointmentId, UUID sellerId, UUID propertyId, LocalDateTime start) {
+        try {
+            return mongoTemplate.upsert(claimQuery(appointmentId, start),
+                    claimUpdate(sellerId, propertyId, start, LocalDateTime.now()), SlotClaim.class).getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            // Two upserts of the same claim raced; the other one stored it
+            return false;
+        }
+    }
+
+    /**
+     * A rival claim counts while its writer may still be in flight, or while its
+     * appointment is still active on that slot. Anything else was left behind by a
+     * writer that died or failed to release, and is cleared here.
+     */
+    private boolean isLive(SlotClaim claim) {
+        if (claim.getClaimedAt() == null || claim.getClaimedAt().isAfter(LocalDateTime.now().minus(staleAfter))) {
+            return true;
+        }
+        boolean active = mongoTemplate.exists(Query.query(Criteria.where("_id").is(claim.getAppointmentId())
+                .and("status").in(AppointmentConflictIndex.ACTIVE_STATUSES)
+                .and("scheduledAt").is(claim.getStart())), Appointment.class);
+        if (!active) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(claim.getId())), SlotClaim.class);
+        }
+        return active;
+    }
+
+    private static Query claimQuery(ObjectId appointmentId, LocalDateTime start) {
+        return Query.query(Criteria.where("appointmentId").is(appointmentId).and("start").is(start));
+    }
+
+    private Update claimUpdate(UUID sellerId, UUID propertyId, LocalDateTime start, LocalDateTime now) {
+        return new Update()
+                .setOnInsert("sellerId", sellerId)
+                .setOnInsert("propertyId", propertyId)
+                .setOnInsert("claimedAt", now)
+                .setOnInsert("expiresAt", start.plus(slotDuration));
+    }
+}
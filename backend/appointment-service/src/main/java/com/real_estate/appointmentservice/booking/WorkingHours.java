@@ -0,0 +1,43 @@
+package com.real_estate.appointmentservice.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Viewing hours per day of week, parsed once from configuration so availability
+ * requests never re-derive them. Days not listed are closed.
+ */
+@Component
+public class WorkingHours {
+
+    private final Map<DayOfWeek, Window> template = new EnumMap<>(DayOfWeek.class);
+
+    public WorkingHours(@Value("${appointment.working-hours.days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY,SATURDAY}") Set<DayOfWeek> days,
+                        @Value("${appointment.working-hours.open:09:00}") LocalTime open,
+                        @Value("${appointment.working-hours.close:18:00}") LocalTime close) {
+        Window window = new Window(open, close);
+        for (DayOfWeek day : days) {
+            template.put(day, window);
+        }
+    }
+
+    // Opening hours for the day, or null when closed
+    public Window on(DayOfWeek day) {
+        return template.get(day);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Window {
+        private final LocalTime open;
+        private final LocalTime close;
+    }
+}
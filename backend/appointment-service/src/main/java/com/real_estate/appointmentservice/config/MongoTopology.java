@@ -0,0 +1,24 @@
+package com.real_estate.appointmentservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Slf4j
+public final class MongoTopology {
+
+    private MongoTopology() {
+    }
+
+    // Change streams are only served by replica set members and mongos
+    public static boolean supportsChangeStreams(MongoTemplate mongoTemplate) {
+        try {
+            Document hello = mongoTemplate.executeCommand(new Document("hello", 1));
+            return hello.containsKey("setName") || "isdbgrid".equals(hello.getString("msg"));
+        } catch (DataAccessException e) {
+            log.warn("Could not determine the MongoDB topology", e);
+            return false;
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package com.real_estate.appointmentservice.config;
 
+import com.real_estate.common.security.IdentityHeaderFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.time.Duration;
 
 @Configuration
 public class SecurityConfig {
 
+    @Value("${identity.signing-key:}")
+    private String identitySigningKey;
+
+    @Value("${identity.max-age:PT60S}")
+    private Duration identityMaxAge;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .anyRequest().permitAll()
-                );
+                )
+                // Caller identity as verified by the api-gateway
+                .addFilterBefore(new IdentityHeaderFilter(identitySigningKey, identityMaxAge),
+                        UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 }
@@ -1,13 +1,26 @@
 package com.real_estate.appointmentservice.controller;
 
+import com.real_estate.appointmentservice.dto.AppointmentChanges;
+import com.real_estate.appointmentservice.dto.AppointmentPage;
 import com.real_estate.appointmentservice.dto.AppointmentRequest;
 import com.real_estate.appointmentservice.dto.AppointmentResponse;
+import com.real_estate.appointmentservice.dto.AvailabilityResponse;
+import com.real_estate.appointmentservice.dto.DailyStatsResponse;
+import com.real_estate.appointmentservice.dto.StatusChangeRequest;
+import com.real_estate.appointmentservice.dto.StatusChangeResult;
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.events.AppointmentEventHub;
 import com.real_estate.appointmentservice.service.AppointmentService;
 import jakarta.validation.Valid;
 import org.bson.types.ObjectId;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,9 +29,11 @@ import java.util.UUID;
 public class AppointmentController {
 
     private final AppointmentService service;
+    private final AppointmentEventHub eventHub;
 
-    public AppointmentController(AppointmentService service) {
+    public AppointmentController(AppointmentService service, AppointmentEventHub eventHub) {
         this.service = service;
+        this.eventHub = eventHub;
     }
 
     @PostMapping
@@ -31,6 +46,66 @@ public class AppointmentController {
         return ResponseEntity.ok(service.getAllAppointments());
     }
 
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> getAvailability(
+            @RequestParam UUID propertyId,
+            @RequestParam UUID sellerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer slotMinutes) {
+        return ResponseEntity.ok(service.getAvailability(propertyId, sellerId, from, to, slotMinutes));
+    }
+
+    // live create / update / cancel events, optionally narrowed to one buyer, seller or property
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(required = false) UUID buyerId,
+                             @RequestParam(required = false) UUID sellerId,
+                             @RequestParam(required = false) UUID propertyId) {
+        return eventHub.subscribe(buyerId, sellerId, propertyId);
+    }
+
+    // delta sync: appointments created, updated or cancelled since syncToken
+    @GetMapping("/changes")
+    public ResponseEntity<AppointmentChanges> getChanges(
+            @RequestParam(required = false) UUID buyerId,
+            @RequestParam(required = false) UUID sellerId,
+            @RequestParam(required = false) String syncToken,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(service.getChanges(buyerId, sellerId, syncToken, limit));
+    }
+
+    // per-day counts by status for one seller or property, from the pre-aggregated rollups
+    @GetMapping("/stats")
+    public ResponseEntity<List<DailyStatsResponse>> getDailyStats(
+            @RequestParam(required = false) UUID sellerId,
+            @RequestParam(required = false) UUID propertyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.getDailyStats(sellerId, propertyId, from, to));
+    }
+
+    @GetMapping("/buyer/{buyerId}")
+    public ResponseEntity<AppointmentPage> getByBuyer(
+            @PathVariable UUID buyerId,
+            @RequestParam(required = false) Appointment.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(service.getBuyerAppointments(buyerId, status, from, to, page, size));
+    }
+
+    @GetMapping("/seller/{sellerId}")
+    public ResponseEntity<AppointmentPage> getBySeller(
+            @PathVariable UUID sellerId,
+            @RequestParam(required = false) Appointment.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(service.getSellerAppointments(sellerId, status, from, to, page, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<AppointmentResponse> getById(@PathVariable String id) {
         return ResponseEntity.ok(service.getAppointmentById(id));
@@ -42,11 +117,18 @@ public class AppointmentController {
         return ResponseEntity.ok(service.updateAppointment(id, request));
     }
 
+    // batch status change, e.g. confirm or cancel many at once; one result per item
+    @PostMapping("/status")
+    public ResponseEntity<List<StatusChangeResult>> changeStatuses(@Valid @RequestBody StatusChangeRequest request) {
+        return ResponseEntity.ok(service.changeStatuses(request.getItems()));
+    }
+
     // soft delete
     // appointment.status -> "CANCELLED"
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable String  id) {
-        service.deleteAppointment(id);
+    public ResponseEntity<Void> delete(@PathVariable String  id,
+                                       @RequestParam(required = false) Long version) {
+        service.deleteAppointment(id, version);
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,16 @@
+package com.real_estate.appointmentservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class AppointmentChanges {
+
+    private List<AppointmentResponse> items;
+    // Pass back as syncToken to continue from the last item
+    private String syncToken;
+    private boolean hasMore;
+}
@@ -0,0 +1,14 @@
+package com.real_estate.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AppointmentEvent {
+
+    public enum Type { CREATED, UPDATED, CANCELLED }
+
+    private Type type;
+    private AppointmentResponse appointment;
+}
@@ -0,0 +1,16 @@
+package com.real_estate.appointmentservice.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class AppointmentPage {
+
+    private List<AppointmentResponse> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -26,4 +26,7 @@ public class AppointmentRequest {
 
     @Size(max = 1000, message = "Notes cannot exceed 1000 characters")
     private String notes;
+
+    // Optional on update: only apply if the appointment is still at this version
+    private Long version;
 }
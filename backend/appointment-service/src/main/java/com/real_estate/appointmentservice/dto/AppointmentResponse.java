@@ -22,4 +22,21 @@ public class AppointmentResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime canceledAt;
+    private Long version;
+
+    public static AppointmentResponse from(Appointment entity) {
+        return AppointmentResponse.builder()
+                .id(entity.getId())
+                .buyerId(entity.getBuyerId())
+                .sellerId(entity.getSellerId())
+                .propertyId(entity.getPropertyId())
+                .scheduledAt(entity.getScheduledAt())
+                .status(entity.getStatus())
+                .notes(entity.getNotes())
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(entity.getUpdatedAt())
+                .canceledAt(entity.getCanceledAt())
+                .version(entity.getVersion())
+                .build();
+    }
 }
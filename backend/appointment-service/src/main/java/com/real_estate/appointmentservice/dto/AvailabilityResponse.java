@@ -0,0 +1,26 @@
+package com.real_estate.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class AvailabilityResponse {
+
+    private UUID propertyId;
+    private UUID sellerId;
+    private int slotMinutes;
+    private List<Slot> slots;
+
+    @Data
+    @AllArgsConstructor
+    public static class Slot {
+        private LocalDateTime start;
+        private LocalDateTime end;
+    }
+}
@@ -0,0 +1,16 @@
+package com.real_estate.appointmentservice.dto;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class DailyStatsResponse {
+
+    private LocalDate day;
+    private Map<Appointment.Status, Long> counts;
+}
@@ -0,0 +1,28 @@
+package com.real_estate.appointmentservice.dto;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class StatusChangeRequest {
+
+    @NotEmpty
+    @Size(max = 500, message = "At most 500 status changes per request")
+    private List<@Valid Item> items;
+
+    @Data
+    public static class Item {
+
+        @NotNull
+        private String id;
+
+        @NotNull
+        private Appointment.Status status;
+    }
+}
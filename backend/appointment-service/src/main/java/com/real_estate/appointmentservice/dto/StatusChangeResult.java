@@ -0,0 +1,19 @@
+package com.real_estate.appointmentservice.dto;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class StatusChangeResult {
+
+    private String id;
+    private Appointment.Status status;
+    private Outcome outcome;
+    private String message;
+
+    public enum Outcome {
+        APPLIED, NOT_FOUND, INVALID_TRANSITION, CONFLICT
+    }
+}
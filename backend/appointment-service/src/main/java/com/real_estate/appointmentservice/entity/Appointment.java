@@ -3,6 +3,9 @@ package com.real_estate.appointmentservice.entity;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -10,6 +13,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Document(collection = "appointments")
+@CompoundIndexes({
+        @CompoundIndex(name = "buyer_scheduled", def = "{'buyerId': 1, 'scheduledAt': 1}"),
+        @CompoundIndex(name = "seller_scheduled", def = "{'sellerId': 1, 'scheduledAt': 1}"),
+        @CompoundIndex(name = "property_scheduled", def = "{'propertyId': 1, 'scheduledAt': 1}"),
+        @CompoundIndex(name = "status_scheduled", def = "{'status': 1, 'scheduledAt': 1}"),
+        @CompoundIndex(name = "buyer_updated", def = "{'buyerId': 1, 'updatedAt': 1, '_id': 1}"),
+        @CompoundIndex(name = "seller_updated", def = "{'sellerId': 1, 'updatedAt': 1, '_id': 1}"),
+        @CompoundIndex(name = "updated", def = "{'updatedAt': 1, '_id': 1}")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,11 +53,26 @@ public class Appointment {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Set on every write; drives the "changes since" sync
     private LocalDateTime updatedAt;
 
     private LocalDateTime canceledAt;
 
+    // Incremented on every write; clients may send it back to update only if unchanged
+    @Version
+    private Long version;
+
     public enum Status {
-        PENDING, CONFIRMED, RESCHEDULED, CANCELLED, COMPLETED
+        PENDING, CONFIRMED, RESCHEDULED, CANCELLED, COMPLETED;
+
+        // Allowed status changes; CANCELLED and COMPLETED are final
+        public boolean canTransitionTo(Status target) {
+            return switch (this) {
+                case PENDING -> target == CONFIRMED || target == RESCHEDULED || target == CANCELLED;
+                case CONFIRMED -> target == RESCHEDULED || target == CANCELLED || target == COMPLETED;
+                case RESCHEDULED -> target == CONFIRMED || target == CANCELLED;
+                case CANCELLED, COMPLETED -> false;
+            };
+        }
     }
 }
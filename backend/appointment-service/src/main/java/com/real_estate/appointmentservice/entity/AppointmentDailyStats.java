@@ -0,0 +1,41 @@
+package com.real_estate.appointmentservice.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Number of appointments per status scheduled on one day, for one seller or one
+ * property. The id is "scope:key:yyyy-MM-dd", so a date range for one seller or
+ * property is a single _id range scan.
+ */
+@Document(collection = "appointment_daily_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AppointmentDailyStats {
+
+    public enum Scope { SELLER, PROPERTY }
+
+    @Id
+    private String id;
+
+    private Scope scope;
+
+    private UUID key;
+
+    private LocalDate day;
+
+    private Map<Appointment.Status, Long> counts = new EnumMap<>(Appointment.Status.class);
+
+    public static String idOf(Scope scope, UUID key, LocalDate day) {
+        return scope.name().toLowerCase() + ":" + key + ":" + day;
+    }
+}
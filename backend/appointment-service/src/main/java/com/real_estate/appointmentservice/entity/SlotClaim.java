@@ -0,0 +1,48 @@
+package com.real_estate.appointmentservice.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The slot held by one active appointment, for the double-booking check shared by
+ * all replicas. An appointment holds at most one claim per start time; claims
+ * expire on their own once the slot is over.
+ */
+@Document(collection = "slot_claims")
+@CompoundIndexes({
+        @CompoundIndex(name = "appointment_start", def = "{'appointmentId': 1, 'start': 1}", unique = true),
+        @CompoundIndex(name = "seller_start", def = "{'sellerId': 1, 'start': 1}"),
+        @CompoundIndex(name = "property_start", def = "{'propertyId': 1, 'start': 1}")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class SlotClaim {
+
+    @Id
+    private ObjectId id;
+
+    private ObjectId appointmentId;
+
+    private UUID sellerId;
+
+    private UUID propertyId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime claimedAt;
+
+    // End of the slot; removed by the TTL monitor after that
+    @Indexed(expireAfter = "0s")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,290 @@
+package com.real_estate.appointmentservice.events;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.real_estate.appointmentservice.config.MongoTopology;
+import com.real_estate.appointmentservice.dto.AppointmentEvent;
+import com.real_estate.appointmentservice.dto.AppointmentResponse;
+import com.real_estate.appointmentservice.entity.Appointment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fans appointment changes out to SSE subscribers. One change stream on the
+ * appointments collection feeds every subscriber; each subscriber is indexed by
+ * its most selective filter so an event only visits the subscribers that can
+ * match it. Every subscriber has a bounded buffer drained on a virtual thread;
+ * a subscriber whose buffer fills up is disconnected rather than slowing the
+ * others down, and is expected to reconnect and refetch.
+ *
+ * Change streams need a replica set, so the stream is opt-in; without it, or on a
+ * standalone mongod, subscribing is refused with 503 instead of returning a
+ * stream that never receives anything.
+ */
+@Slf4j
+@Component
+public class AppointmentEventHub {
+
+    // Queued in place of an event to send a keep-alive comment
+    private static final AppointmentEvent HEARTBEAT = new AppointmentEvent(null, null);
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageListenerContainer container;
+    private final boolean changeStreamEnabled;
+    // True once the change stream is registered
+    private volatile boolean live;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<Subscriber>> byBuyer = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> bySeller = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> byProperty = new ConcurrentHashMap<>();
+
+    public AppointmentEventHub(MongoTemplate mongoTemplate,
+                               @Value("${appointment.events.change-stream.enabled:false}") boolean changeStreamEnabled,
+                               @Value("${appointment.events.buffer-size:256}") int bufferSize,
+                               @Value("${appointment.events.max-subscribers:10000}") int maxSubscribers,
+                               @Value("${appointment.events.timeout:PT30M}") Duration timeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+        this.changeStreamEnabled = changeStreamEnabled;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        if (!MongoTopology.supportsChangeStreams(mongoTemplate)) {
+            log.warn("MongoDB is not a replica set; live appointment events are disabled");
+            return;
+        }
+        ChangeStreamRequest<Appointment> request = ChangeStreamRequest.builder(this::onChange)
+                .collection("appointments")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, Appointment.class);
+        container.start();
+        live = true;
+        log.info("Listening for appointment changes to publish to SSE subscribers");
+    }
+
+    @PreDestroy
+    public void stop() {
+        container.stop();
+        senders.shutdownNow();
+    }
+
+    // Open a stream of events matching every non-null filter
+    public SseEmitter subscribe(UUID buyerId, UUID sellerId, UUID propertyId) {
+        if (!live) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Live appointment events are not enabled");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, buyerId, sellerId, propertyId, bufferSize);
+        index(subscriber, true);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    // Keeps idle connections open through proxies and detects dead clients
+    @Scheduled(fixedDelayString = "${appointment.events.heartbeat:PT30S}")
+    public void heartbeat() {
+        forEachSubscriber(subscriber -> enqueue(subscriber, HEARTBEAT));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Appointment> message) {
+        ChangeStreamDocument<Document> raw = message.getRaw();
+        Appointment appointment = message.getBody();
+        if (raw == null || appointment == null) {
+            // deletes and collection-level events carry no document to publish
+            return;
+        }
+        AppointmentEvent.Type type;
+        if (raw.getOperationType() == OperationType.INSERT) {
+            type = AppointmentEvent.Type.CREATED;
+        } else if (appointment.getStatus() == Appointment.Status.CANCELLED) {
+            type = AppointmentEvent.Type.CANCELLED;
+        } else {
+            type = AppointmentEvent.Type.UPDATED;
+        }
+        publish(new AppointmentEvent(type, AppointmentResponse.from(appointment)));
+    }
+
+    private void publish(AppointmentEvent event) {
+        AppointmentResponse appointment = event.getAppointment();
+        List<Subscriber> candidates = new ArrayList<>(unfiltered);
+        addAll(candidates, byProperty, appointment.getPropertyId());
+        addAll(candidates, bySeller, appointment.getSellerId());
+        addAll(candidates, byBuyer, appointment.getBuyerId());
+        for (Subscriber subscriber : candidates) {
+            if (subscriber.matches(appointment)) {
+                enqueue(subscriber, event);
+            }
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, AppointmentEvent event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.buffer.offer(event)) {
+            // Too slow to keep up; drop it so it cannot hold memory or delay others
+            subscriber.emitter.completeWithError(new IllegalStateException("Event buffer overflow"));
+            unsubscribe(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            AppointmentEvent event;
+            while ((event = subscriber.buffer.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event == HEARTBEAT
+                            ? SseEmitter.event().comment("ping")
+                            : SseEmitter.event().name(event.getType().name()).data(event));
+                } catch (Exception e) {
+                    subscriber.emitter.completeWithError(e);
+                    unsubscribe(subscriber);
+                    subscriber.buffer.clear();
+                    break;
+                }
+            }
+            subscriber.draining.set(false);
+            // An event may have arrived after the last poll but before the flag was cleared
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            index(subscriber, false);
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // Each subscriber lives in exactly one set, keyed by its most selective filter
+    private void index(Subscriber subscriber, boolean add) {
+        Map<UUID, Set<Subscriber>> index;
+        UUID key;
+        if (subscriber.propertyId != null) {
+            index = byProperty;
+            key = subscriber.propertyId;
+        } else if (subscriber.sellerId != null) {
+            index = bySeller;
+            key = subscriber.sellerId;
+        } else if (subscriber.buyerId != null) {
+            index = byBuyer;
+            key = subscriber.buyerId;
+        } else {
+            if (add) {
+                unfiltered.add(subscriber);
+            } else {
+                unfiltered.remove(subscriber);
+            }
+            return;
+        }
+        // compute() is atomic per key, so a set is never dropped while another thread adds to it
+        index.compute(key, (k, set) -> {
+            if (add) {
+                Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+                subscribers.add(subscriber);
+                return subscribers;
+            }
+            if (set != null) {
+                set.remove(subscriber);
+            }
+            return set == null || set.isEmpty() ? null : set;
+        });
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        unfiltered.forEach(action);
+        byProperty.values().forEach(set -> set.forEach(action));
+        bySeller.values().forEach(set -> set.forEach(action));
+        byBuyer.values().forEach(set -> set.forEach(action));
+    }
+
+    private static void addAll(List<Subscriber> target, Map<UUID, Set<Subscriber>> index, UUID key) {
+        if (key == null) {
+            return;
+        }
+        Set<Subscriber> subscribers = index.get(key);
+        if (subscribers != null) {
+            target.addAll(subscribers);
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final UUID buyerId;
+        final UUID sellerId;
+        final UUID propertyId;
+        final Queue<AppointmentEvent> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, UUID buyerId, UUID sellerId, UUID propertyId, int bufferSize) {
+            this.emitter = emitter;
+            this.buyerId = buyerId;
+            this.sellerId = sellerId;
+            this.propertyId = propertyId;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean matches(AppointmentResponse appointment) {
+            return (buyerId == null || buyerId.equals(appointment.getBuyerId()))
+                    && (sellerId == null || sellerId.equals(appointment.getSellerId()))
+                    && (propertyId == null || propertyId.equals(appointment.getPropertyId()));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.real_estate.appointmentservice.lifecycle;
+
+import com.mongodb.client.result.UpdateResult;
+import com.real_estate.appointmentservice.analytics.AppointmentRollups;
+import com.real_estate.appointmentservice.booking.AppointmentConflictIndex;
+import com.real_estate.appointmentservice.booking.SlotClaims;
+import com.real_estate.appointmentservice.entity.Appointment;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Closes out appointments whose time has passed: PENDING ones that were never
+ * confirmed become CANCELLED, CONFIRMED ones become COMPLETED once the viewing
+ * has ended. Each run walks the (status, scheduledAt) index in bounded batches,
+ * so it only touches overdue rows, and only the replica holding the lease runs it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "appointment.lifecycle.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentLifecycleScheduler {
+
+    private static final String LEASE = "appointment-lifecycle";
+
+    private final MongoTemplate mongoTemplate;
+    private final SchedulerLease lease;
+    private final AppointmentConflictIndex conflictIndex;
+    private final SlotClaims slotClaims;
+    private final AppointmentRollups rollups;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration leaseTtl;
+
+    public AppointmentLifecycleScheduler(MongoTemplate mongoTemplate,
+                                         SchedulerLease lease,
+                                         AppointmentConflictIndex conflictIndex,
+                                         SlotClaims slotClaims,
+                                         AppointmentRollups rollups,
+                                         @Value("${appointment.lifecycle.batch-size:500}") int batchSize,
+                                         @Value("${appointment.lifecycle.max-batches-per-run:20}") int maxBatchesPerRun,
+                                         @Value("${appointment.lifecycle.lease-ttl:PT5M}") Duration leaseTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.lease = lease;
+        this.conflictIndex = conflictIndex;
+        this.slotClaims = slotClaims;
+        this.rollups = rollups;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @Scheduled(fixedDelayString = "${appointment.lifecycle.interval:PT1M}")
+    public void expireAppointments() {
+        if (!lease.tryAcquire(LEASE, leaseTtl)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int cancelled = transition(Appointment.Status.PENDING, Appointment.Status.CANCELLED, now);
+        int completed = transition(Appointment.Status.CONFIRMED, Appointment.Status.COMPLETED,
+                now.minus(conflictIndex.getSlotDuration()));
+        if (cancelled > 0 || completed > 0) {
+            log.info("Expired appointments: {} cancelled, {} completed", cancelled, completed);
+        }
+    }
+
+    // Move appointments in status from, scheduled before cutoff, to status to
+    private int transition(Appointment.Status from, Appointment.Status to, LocalDateTime cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Query due = Query.query(Criteria.where("status").is(from).and("scheduledAt").lt(cutoff))
+                    .limit(batchSize);
+            due.fields().include("sellerId", "propertyId", "scheduledAt", "status");
+            List<Appointment> appointments = mongoTemplate.find(due, Appointment.class);
+            List<ObjectId> ids = appointments.stream().map(Appointment::getId).toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // Millisecond precision, as stored, so a re-read can tell this batch's writes apart
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            Update update = new Update()
+                    .set("status", to)
+                    .set("updatedAt", now)
+                    .inc("version", 1);
+            if (to == Appointment.Status.CANCELLED) {
+                update.set("canceledAt", now);
+            }
+            // Re-check the status so a concurrent confirm/cancel is not overwritten
+            UpdateResult result = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(ids).and("status").is(from)), update, Appointment.class);
+            // Only what this batch moved frees its slot: one that lost the race, e.g. to a
+            // concurrent confirm, is still active and keeps its claim and index entry
+            List<Appointment> moved = result.getModifiedCount() < ids.size()
+                    ? writtenBy(appointments, to, now)
+                    : appointments;
+            if (!moved.isEmpty()) {
+                List<ObjectId> movedIds = moved.stream().map(Appointment::getId).toList();
+                movedIds.forEach(conflictIndex::remove);
+                slotClaims.releaseAll(movedIds);
+                recordRollups(moved, to);
+            }
+
+            total += moved.size();
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    // Some guarded updates matched nothing: keep the candidates this batch wrote, i.e. now in
+    // the target status with our updatedAt, not one a concurrent writer moved to the same status
+    private List<Appointment> writtenBy(List<Appointment> appointments, Appointment.Status to, LocalDateTime writtenAt) {
+        Query query = Query.query(Criteria.where("_id").in(appointments.stream().map(Appointment::getId).toList())
+                .and("status").is(to)
+                .and("updatedAt").is(writtenAt));
+        query.fields().include("_id");
+        Set<ObjectId> written = mongoTemplate.find(query, Appointment.class).stream()
+                .map(Appointment::getId)
+                .collect(Collectors.toSet());
+        return appointments.stream().filter(appointment -> written.contains(appointment.getId())).toList();
+    }
+
+    private void recordRollups(List<Appointment> moved, Appointment.Status to) {
+        AppointmentRollups.Delta delta = rollups.delta();
+        for (Appointment appointment : moved) {
+            Appointment.Status previous = appointment.getStatus();
+            appointment.setStatus(to);
+            delta.move(appointment, previous);
+        }
+        rollups.record(delta);
+    }
+}
@@ -0,0 +1,47 @@
+package com.real_estate.appointmentservice.lifecycle;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Mongo-backed lease so a background job runs on one replica at a time. The
+ * holder renews by acquiring again before the lease expires; if it dies, another
+ * replica takes over once expiresAt has passed.
+ */
+@Component
+public class SchedulerLease {
+
+    private static final String COLLECTION = "scheduler_leases";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public SchedulerLease(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // True if this instance now holds the named lease for ttl
+    public boolean tryAcquire(String name, Duration ttl) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(ttl));
+        try {
+            mongoTemplate.upsert(query, update, COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Lease exists and is held by another live instance
+            return false;
+        }
+    }
+}
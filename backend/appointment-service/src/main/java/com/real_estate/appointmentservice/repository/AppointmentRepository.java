@@ -3,12 +3,17 @@ package com.real_estate.appointmentservice.repository;
 import com.real_estate.appointmentservice.entity.Appointment;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface AppointmentRepository extends MongoRepository<Appointment, ObjectId> {
     List<Appointment> findByBuyerId(UUID buyerId);
     List<Appointment> findBySellerId(UUID sellerId);
+    Stream<Appointment> findByStatusInAndScheduledAtAfter(Collection<Appointment.Status> statuses, LocalDateTime after);
 //    Optional<Appointment> findByIdTimestamp(Long timestamp);
 }
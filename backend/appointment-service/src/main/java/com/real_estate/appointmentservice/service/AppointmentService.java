@@ -1,9 +1,18 @@
 package com.real_estate.appointmentservice.service;
 
+import com.real_estate.appointmentservice.dto.AppointmentChanges;
 import com.real_estate.appointmentservice.dto.AppointmentRequest;
+import com.real_estate.appointmentservice.dto.AppointmentPage;
 import com.real_estate.appointmentservice.dto.AppointmentResponse;
+import com.real_estate.appointmentservice.dto.AvailabilityResponse;
+import com.real_estate.appointmentservice.dto.DailyStatsResponse;
+import com.real_estate.appointmentservice.dto.StatusChangeRequest;
+import com.real_estate.appointmentservice.dto.StatusChangeResult;
+import com.real_estate.appointmentservice.entity.Appointment;
 import org.bson.types.ObjectId;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,5 +21,14 @@ public interface AppointmentService {
     List<AppointmentResponse> getAllAppointments();
     AppointmentResponse getAppointmentById(String id);
     AppointmentResponse updateAppointment(String id, AppointmentRequest request);
-    void deleteAppointment(String id);
+    void deleteAppointment(String id, Long expectedVersion);
+    AppointmentPage getBuyerAppointments(UUID buyerId, Appointment.Status status,
+                                         LocalDateTime from, LocalDateTime to, int page, int size);
+    AppointmentPage getSellerAppointments(UUID sellerId, Appointment.Status status,
+                                          LocalDateTime from, LocalDateTime to, int page, int size);
+    AppointmentChanges getChanges(UUID buyerId, UUID sellerId, String syncToken, int limit);
+    List<StatusChangeResult> changeStatuses(List<StatusChangeRequest.Item> changes);
+    AvailabilityResponse getAvailability(UUID propertyId, UUID sellerId,
+                                         LocalDateTime from, LocalDateTime to, Integer slotMinutes);
+    List<DailyStatsResponse> getDailyStats(UUID sellerId, UUID propertyId, LocalDate from, LocalDate to);
 }
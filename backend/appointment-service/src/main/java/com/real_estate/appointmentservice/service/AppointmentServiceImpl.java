@@ -1,52 +1,190 @@
 package com.real_estate.appointmentservice.service;
 
+import com.real_estate.appointmentservice.analytics.AppointmentRollups;
+import com.real_estate.appointmentservice.booking.AppointmentConflictIndex;
+import com.real_estate.appointmentservice.booking.SlotClaims;
+import com.real_estate.appointmentservice.booking.WorkingHours;
+import com.real_estate.appointmentservice.dto.AppointmentChanges;
+import com.real_estate.appointmentservice.dto.AppointmentPage;
 import com.real_estate.appointmentservice.dto.AppointmentRequest;
 import com.real_estate.appointmentservice.dto.AppointmentResponse;
+import com.real_estate.appointmentservice.dto.AvailabilityResponse;
+import com.real_estate.appointmentservice.dto.DailyStatsResponse;
+import com.real_estate.appointmentservice.dto.StatusChangeRequest;
+import com.real_estate.appointmentservice.dto.StatusChangeResult;
+import com.real_estate.appointmentservice.dto.StatusChangeResult.Outcome;
 import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.entity.AppointmentDailyStats;
 import com.real_estate.appointmentservice.repository.AppointmentRepository;
+import io.micrometer.core.annotation.Timed;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "appointment.service", histogram = true)
 public class AppointmentServiceImpl implements AppointmentService {
 
+    private static final int CLAIM_RESTORE_BATCH = 1000;
+
+    // Statuses a cancel may start from, the same rule the status endpoint applies
+    private static final Set<Appointment.Status> CANCELLABLE = EnumSet.copyOf(Arrays.stream(Appointment.Status.values())
+            .filter(status -> status.canTransitionTo(Appointment.Status.CANCELLED))
+            .toList());
+
+    // One-off data migrations record a marker here once done, so later starts skip them
+    private static final String MIGRATIONS = "migrations";
+    private static final String UPDATED_AT_BACKFILL = "appointments-updated-at";
+
     private final AppointmentRepository repository;
+    private final AppointmentConflictIndex conflictIndex;
+    private final SlotClaims slotClaims;
+    private final WorkingHours workingHours;
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRollups rollups;
+    private final int maxPageSize;
+    private final Duration maxAvailabilityRange;
+    private final int maxSyncPageSize;
+    private final Duration syncSettleLag;
+    private final int maxStatsDays;
 
-    public AppointmentServiceImpl(AppointmentRepository repository) {
+    public AppointmentServiceImpl(AppointmentRepository repository,
+                                  AppointmentConflictIndex conflictIndex,
+                                  SlotClaims slotClaims,
+                                  WorkingHours workingHours,
+                                  MongoTemplate mongoTemplate,
+                                  AppointmentRollups rollups,
+                                  @Value("${appointment.feed.max-page-size:100}") int maxPageSize,
+                                  @Value("${appointment.availability.max-range:P31D}") Duration maxAvailabilityRange,
+                                  @Value("${appointment.sync.max-page-size:500}") int maxSyncPageSize,
+                                  @Value("${appointment.sync.settle-lag:PT2S}") Duration syncSettleLag,
+                                  @Value("${appointment.rollup.max-days:366}") int maxStatsDays) {
         this.repository = repository;
+        this.conflictIndex = conflictIndex;
+        this.slotClaims = slotClaims;
+        this.workingHours = workingHours;
+        this.mongoTemplate = mongoTemplate;
+        this.rollups = rollups;
+        this.maxPageSize = maxPageSize;
+        this.maxAvailabilityRange = maxAvailabilityRange;
+        this.maxSyncPageSize = maxSyncPageSize;
+        this.syncSettleLag = syncSettleLag;
+        this.maxStatsDays = maxStatsDays;
+    }
+
+    // Load every active, not yet finished appointment into the conflict index and make
+    // sure each holds its slot claim; bookings are refused until this has run
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildConflictIndex() {
+        List<Appointment> unclaimed = new ArrayList<>(CLAIM_RESTORE_BATCH);
+        try (Stream<Appointment> active = repository.findByStatusInAndScheduledAtAfter(
+                AppointmentConflictIndex.ACTIVE_STATUSES, LocalDateTime.now().minus(conflictIndex.getSlotDuration()))) {
+            conflictIndex.rebuild(active.peek(appointment -> {
+                unclaimed.add(appointment);
+                if (unclaimed.size() == CLAIM_RESTORE_BATCH) {
+                    slotClaims.restore(unclaimed);
+                    unclaimed.clear();
+                }
+            }));
+        }
+        slotClaims.restore(unclaimed);
+    }
+
+    // Appointments written before updatedAt was maintained on every write get one now,
+    // so they show up in the next sync. It only needs to run once per database: replicas
+    // starting together may both run it, which is harmless
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillUpdatedAt() {
+        Query marker = Query.query(Criteria.where("_id").is(UPDATED_AT_BACKFILL));
+        if (mongoTemplate.exists(marker, MIGRATIONS)) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("updatedAt").is(null)),
+                new Update().set("updatedAt", LocalDateTime.now()), Appointment.class);
+        mongoTemplate.upsert(marker, new Update().setOnInsert("completedAt", LocalDateTime.now()), MIGRATIONS);
+    }
+
+    private void requireCalendar() {
+        if (!conflictIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking calendar is still loading; retry shortly");
+        }
+    }
+
+    // A hit is only final while the index follows every replica's writes; otherwise it may be a
+    // booking cancelled or moved elsewhere, so the slot claim that follows decides instead
+    private void rejectIfBooked(UUID sellerId, UUID propertyId, LocalDateTime scheduledAt, ObjectId ignoreId) {
+        requireCalendar();
+        if (conflictIndex.isSynced() && conflictIndex.conflicts(sellerId, propertyId, scheduledAt, ignoreId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Seller or property is already booked for this time slot");
+        }
     }
 
     private AppointmentResponse mapToResponse(Appointment entity) {
-        return AppointmentResponse.builder()
-                .id(entity.getId())
-                .buyerId(entity.getBuyerId())
-                .sellerId(entity.getSellerId())
-                .propertyId(entity.getPropertyId())
-                .scheduledAt(entity.getScheduledAt())
-                .status(entity.getStatus())
-                .notes(entity.getNotes())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .canceledAt(entity.getCanceledAt())
-                .build();
+        return AppointmentResponse.from(entity);
     }
 
     @Override
     public AppointmentResponse createAppointment(AppointmentRequest request) {
+        LocalDateTime now = LocalDateTime.now();
         Appointment entity = Appointment.builder()
+                .id(new ObjectId())
                 .buyerId(request.getBuyerId())
                 .sellerId(request.getSellerId())
                 .propertyId(request.getPropertyId())
                 .scheduledAt(request.getScheduledAt())
                 .notes(request.getNotes())
                 .status(Appointment.Status.PENDING)
-                .createdAt(LocalDateTime.now())
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
-        return mapToResponse(repository.save(entity));
+
+        // Only the check and the write that claims the slot run under the lock; the rollups are not needed for it
+        Appointment saved = conflictIndex.withSlotLock(entity.getSellerId(), entity.getPropertyId(), () -> {
+            rejectIfBooked(entity.getSellerId(), entity.getPropertyId(), entity.getScheduledAt(), null);
+            slotClaims.claim(entity.getId(), entity.getSellerId(), entity.getPropertyId(), entity.getScheduledAt());
+            Appointment inserted;
+            try {
+                inserted = repository.insert(entity);
+            } catch (RuntimeException e) {
+                slotClaims.release(entity.getId(), entity.getScheduledAt());
+                throw e;
+            }
+            conflictIndex.update(inserted);
+            return inserted;
+        });
+        rollups.record(rollups.delta().add(saved));
+        return mapToResponse(saved);
     }
 
     @Override
@@ -65,25 +203,475 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     public AppointmentResponse updateAppointment(String id, AppointmentRequest request) {
         ObjectId objectId = new ObjectId(id);
-        Appointment entity = repository.findById(objectId)
+
+        // Seller and property come from the request and are part of the filter, so the
+        // conflict check needs no prior read; a mismatch simply matches nothing. Only
+        // active appointments can be moved: a cancelled or completed one matches nothing too
+        AppointmentRollups.Delta delta = rollups.delta();
+        Appointment saved = conflictIndex.withSlotLock(request.getSellerId(), request.getPropertyId(), () -> {
+            rejectIfBooked(request.getSellerId(), request.getPropertyId(), request.getScheduledAt(), objectId);
+            boolean claimed = slotClaims.claim(objectId, request.getSellerId(), request.getPropertyId(), request.getScheduledAt());
+
+            Criteria criteria = Criteria.where("_id").is(objectId)
+                    .and("sellerId").is(request.getSellerId())
+                    .and("propertyId").is(request.getPropertyId())
+                    .and("status").in(AppointmentConflictIndex.ACTIVE_STATUSES);
+            LocalDateTime now = LocalDateTime.now();
+            Update update = new Update()
+                    .set("scheduledAt", request.getScheduledAt())
+                    .set("notes", request.getNotes())
+                    .set("updatedAt", now);
+
+            // Apply the same changes to the previous state to get the stored result
+            Appointment moved;
+            try {
+                moved = modify(objectId, criteria, update, request.getVersion());
+            } catch (RuntimeException e) {
+                if (claimed) {
+                    slotClaims.release(objectId, request.getScheduledAt());
+                }
+                throw e;
+            }
+            delta.remove(moved);
+            moved.setScheduledAt(request.getScheduledAt());
+            moved.setNotes(request.getNotes());
+            moved.setUpdatedAt(now);
+            delta.add(moved);
+
+            conflictIndex.update(moved);
+            return moved;
+        });
+        // Freeing the old slot and the rollups can wait until the lock is released
+        slotClaims.settle(saved);
+        rollups.record(delta);
+        return mapToResponse(saved);
+    }
+
+    // Apply update atomically and return the document as it was before, with its version
+    // already bumped; expectedVersion, if given, must still match
+    private Appointment modify(ObjectId id, Criteria criteria, Update update, Long expectedVersion) {
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        update.inc("version", 1);
+        Appointment previous = mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), Appointment.class);
+        if (previous != null) {
+            previous.setVersion(previous.getVersion() == null ? 1 : previous.getVersion() + 1);
+            return previous;
+        }
+
+        // Nothing matched: find out why (only on the failure path)
+        Appointment existing = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Appointment was modified concurrently; reload and retry");
+        }
+        if (!AppointmentConflictIndex.ACTIVE_STATUSES.contains(existing.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Appointment is " + existing.getStatus() + " and can no longer be changed");
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sellerId and propertyId do not match the appointment");
+    }
+
+    @Override
+    public AppointmentPage getBuyerAppointments(UUID buyerId, Appointment.Status status,
+                                                LocalDateTime from, LocalDateTime to, int page, int size) {
+        return findFeed("buyerId", buyerId, status, from, to, page, size);
+    }
+
+    @Override
+    public AppointmentPage getSellerAppointments(UUID sellerId, Appointment.Status status,
+                                                 LocalDateTime from, LocalDateTime to, int page, int size) {
+        return findFeed("sellerId", sellerId, status, from, to, page, size);
+    }
+
+    // One page of a buyer/seller feed, ordered by scheduledAt and served by the (party, scheduledAt) index
+    private AppointmentPage findFeed(String party, UUID partyId, Appointment.Status status,
+                                     LocalDateTime from, LocalDateTime to, int page, int size) {
+        int pageSize = Math.min(Math.max(size, 1), maxPageSize);
+        int pageNumber = Math.max(page, 0);
+
+        Criteria criteria = Criteria.where(party).is(partyId);
+        if (from != null || to != null) {
+            Criteria scheduledAt = criteria.and("scheduledAt");
+            if (from != null) {
+                scheduledAt.gte(from);
+            }
+            if (to != null) {
+                scheduledAt.lt(to);
+            }
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+
+        // Feeds only render these fields; notes and audit timestamps are not fetched
+        Query query = Query.query(criteria)
+                .with(Sort.by("scheduledAt", "_id"))
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize + 1);
+        query.fields().include("buyerId", "sellerId", "propertyId", "scheduledAt", "status");
+
+        List<Appointment> rows = mongoTemplate.find(query, Appointment.class);
+        boolean hasNext = rows.size() > pageSize;
+        return AppointmentPage.builder()
+                .items(rows.stream().limit(pageSize).map(this::mapToResponse).toList())
+                .page(pageNumber)
+                .size(pageSize)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    @Override
+    public AppointmentChanges getChanges(UUID buyerId, UUID sellerId, String syncToken, int limit) {
+        if ((buyerId == null) == (sellerId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Exactly one of buyerId or sellerId is required");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), maxSyncPageSize);
+        Criteria criteria = buyerId != null
+                ? Criteria.where("buyerId").is(buyerId)
+                : Criteria.where("sellerId").is(sellerId);
 
-        entity.setScheduledAt(request.getScheduledAt());
-        entity.setNotes(request.getNotes());
-        entity.setUpdatedAt(LocalDateTime.now());
+        // Writes still in flight may commit with a slightly older updatedAt; leaving the
+        // newest moment out until it settles keeps the token from skipping past them
+        Criteria settled = Criteria.where("updatedAt").lt(LocalDateTime.now().minus(syncSettleLag));
+        if (syncToken == null || syncToken.isBlank()) {
+            criteria.andOperator(settled);
+        } else {
+            SyncPosition position = decodeSyncToken(syncToken);
+            criteria.andOperator(settled, new Criteria().orOperator(
+                    Criteria.where("updatedAt").gt(position.updatedAt),
+                    Criteria.where("updatedAt").is(position.updatedAt).and("_id").gt(position.id)));
+        }
 
-        return mapToResponse(repository.save(entity));
+        // Served by the (party, updatedAt, _id) index
+        Query query = Query.query(criteria)
+                .with(Sort.by("updatedAt", "_id"))
+                .limit(pageSize + 1);
+        List<Appointment> rows = mongoTemplate.find(query, Appointment.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<Appointment> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextToken = syncToken;
+        if (!items.isEmpty()) {
+            Appointment last = items.get(items.size() - 1);
+            nextToken = encodeSyncToken(last.getUpdatedAt(), last.getId());
+        }
+        return AppointmentChanges.builder()
+                .items(items.stream().map(this::mapToResponse).toList())
+                .syncToken(nextToken)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static final class SyncPosition {
+        final LocalDateTime updatedAt;
+        final ObjectId id;
+
+        SyncPosition(LocalDateTime updatedAt, ObjectId id) {
+            this.updatedAt = updatedAt;
+            this.id = id;
+        }
+    }
+
+    // Opaque to clients: "<updatedAt>|<id>" of the last item returned
+    private static String encodeSyncToken(LocalDateTime updatedAt, ObjectId id) {
+        String raw = updatedAt.truncatedTo(ChronoUnit.MILLIS) + "|" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SyncPosition decodeSyncToken(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new SyncPosition(LocalDateTime.parse(raw.substring(0, sep)), new ObjectId(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+        }
     }
 
     @Override
-    public void deleteAppointment(String id) {
+    public List<StatusChangeResult> changeStatuses(List<StatusChangeRequest.Item> changes) {
+        StatusChangeResult[] results = new StatusChangeResult[changes.size()];
+        Map<ObjectId, Integer> positions = new LinkedHashMap<>();
+        for (int i = 0; i < changes.size(); i++) {
+            String id = changes.get(i).getId();
+            if (!ObjectId.isValid(id)) {
+                results[i] = new StatusChangeResult(id, null, Outcome.NOT_FOUND, "Appointment not found");
+            } else if (positions.putIfAbsent(new ObjectId(id), i) != null) {
+                results[i] = new StatusChangeResult(id, null, Outcome.INVALID_TRANSITION, "Duplicate id in request");
+            }
+        }
+
+        // One read for the whole batch
+        Map<ObjectId, Appointment> current = new HashMap<>();
+        repository.findAllById(positions.keySet()).forEach(a -> current.put(a.getId(), a));
+
+        // Millisecond precision, as stored, so a re-read can tell this batch's writes apart
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Appointment.class);
+        List<Appointment> applied = new ArrayList<>();
+        Map<ObjectId, Appointment.Status> previousStatuses = new HashMap<>();
+        // Reactivated appointments already recorded in the conflict index, and the claims stored for them
+        Set<ObjectId> reserved = new HashSet<>();
+        Set<ObjectId> newClaims = new HashSet<>();
+        for (Map.Entry<ObjectId, Integer> entry : positions.entrySet()) {
+            int i = entry.getValue();
+            String id = changes.get(i).getId();
+            Appointment.Status target = changes.get(i).getStatus();
+            Appointment entity = current.get(entry.getKey());
+            if (entity == null) {
+                results[i] = new StatusChangeResult(id, null, Outcome.NOT_FOUND, "Appointment not found");
+                continue;
+            }
+            Appointment.Status previous = entity.getStatus();
+            if (!previous.canTransitionTo(target)) {
+                results[i] = new StatusChangeResult(id, previous, Outcome.INVALID_TRANSITION,
+                        "Cannot change " + previous + " to " + target);
+                continue;
+            }
+            boolean reactivates = !AppointmentConflictIndex.ACTIVE_STATUSES.contains(previous)
+                    && AppointmentConflictIndex.ACTIVE_STATUSES.contains(target);
+            if (reactivates) {
+                String taken = reserve(entity, target, newClaims);
+                if (taken != null) {
+                    results[i] = new StatusChangeResult(id, previous, Outcome.CONFLICT, taken);
+                    continue;
+                }
+                reserved.add(entity.getId());
+            }
+
+            // Guard on the status we validated against, so a concurrent change is not overwritten
+            Update update = new Update().set("status", target).set("updatedAt", now).inc("version", 1);
+            if (target == Appointment.Status.CANCELLED) {
+                update.set("canceledAt", now);
+            }
+            ops.updateOne(Query.query(Criteria.where("_id").is(entity.getId()).and("status").is(previous)), update);
+
+            previousStatuses.put(entity.getId(), previous);
+            entity.setStatus(target);
+            entity.setUpdatedAt(now);
+            applied.add(entity);
+            results[i] = new StatusChangeResult(id, target, Outcome.APPLIED, "Changed from " + previous);
+        }
+
+        if (!applied.isEmpty()) {
+            int matched;
+            try {
+                matched = ops.execute().getMatchedCount();
+            } catch (RuntimeException e) {
+                // Nothing is known to be written; give back the slots held for reactivations
+                for (Appointment entity : applied) {
+                    if (reserved.contains(entity.getId())) {
+                        conflictIndex.remove(entity.getId());
+                    }
+                    if (newClaims.contains(entity.getId())) {
+                        slotClaims.release(entity.getId(), entity.getScheduledAt());
+                    }
+                }
+                throw e;
+            }
+            Map<ObjectId, Appointment> lost = matched < applied.size()
+                    ? markLostRaces(applied, changes, positions, results, now)
+                    : Map.of();
+
+            AppointmentRollups.Delta delta = rollups.delta();
+            List<ObjectId> deactivated = new ArrayList<>();
+            for (Appointment entity : applied) {
+                if (lost.containsKey(entity.getId())) {
+                    // The slot was held ahead of a write that lost: follow what is stored instead
+                    Appointment actual = lost.get(entity.getId());
+                    if (reserved.contains(entity.getId())) {
+                        if (actual != null) {
+                            conflictIndex.update(actual);
+                        } else {
+                            conflictIndex.remove(entity.getId());
+                        }
+                    }
+                    if (newClaims.contains(entity.getId())) {
+                        if (actual != null) {
+                            slotClaims.settle(actual);
+                        } else {
+                            slotClaims.release(entity.getId(), entity.getScheduledAt());
+                        }
+                    }
+                    continue;
+                }
+                if (!reserved.contains(entity.getId())) {
+                    conflictIndex.update(entity);
+                }
+                delta.move(entity, previousStatuses.get(entity.getId()));
+                if (!AppointmentConflictIndex.ACTIVE_STATUSES.contains(entity.getStatus())) {
+                    deactivated.add(entity.getId());
+                }
+            }
+            if (!deactivated.isEmpty()) {
+                slotClaims.releaseAll(deactivated);
+            }
+            rollups.record(delta);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Check and hold the slot of an appointment being reactivated, under its slot
+     * lock like a create: the claim is stored and the appointment recorded in the
+     * conflict index before the lock is released, so concurrent bookings and later
+     * items of the same batch see it. Returns why the slot is taken, or null.
+     */
+    private String reserve(Appointment entity, Appointment.Status target, Set<ObjectId> newClaims) {
+        return conflictIndex.withSlotLock(entity.getSellerId(), entity.getPropertyId(), () -> {
+            try {
+                rejectIfBooked(entity.getSellerId(), entity.getPropertyId(), entity.getScheduledAt(), entity.getId());
+                if (slotClaims.claim(entity.getId(), entity.getSellerId(), entity.getPropertyId(), entity.getScheduledAt())) {
+                    newClaims.add(entity.getId());
+                }
+            } catch (ResponseStatusException e) {
+                if (e.getStatusCode() != HttpStatus.CONFLICT) {
+                    throw e;
+                }
+                return e.getReason();
+            }
+            Appointment.Status previous = entity.getStatus();
+            entity.setStatus(target);
+            conflictIndex.update(entity);
+            entity.setStatus(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Some guarded updates matched nothing: re-read the batch and flag every item
+     * this batch did not write, including one a concurrent writer moved to the same
+     * status. Returns those items as stored now (null if gone).
+     */
+    private Map<ObjectId, Appointment> markLostRaces(List<Appointment> applied, List<StatusChangeRequest.Item> changes,
+                                                     Map<ObjectId, Integer> positions, StatusChangeResult[] results,
+                                                     LocalDateTime writtenAt) {
+        Map<ObjectId, Appointment> stored = new HashMap<>();
+        repository.findAllById(applied.stream().map(Appointment::getId).toList())
+                .forEach(a -> stored.put(a.getId(), a));
+        Map<ObjectId, Appointment> lost = new HashMap<>();
+        for (Appointment entity : applied) {
+            int i = positions.get(entity.getId());
+            Appointment actual = stored.get(entity.getId());
+            boolean ours = actual != null && actual.getStatus() == entity.getStatus()
+                    && writtenAt.equals(actual.getUpdatedAt());
+            if (!ours) {
+                results[i] = new StatusChangeResult(changes.get(i).getId(), actual == null ? null : actual.getStatus(),
+                        Outcome.CONFLICT, "Appointment was changed concurrently");
+                lost.put(entity.getId(), actual);
+            }
+        }
+        return lost;
+    }
+
+    @Override
+    public AvailabilityResponse getAvailability(UUID propertyId, UUID sellerId,
+                                                LocalDateTime from, LocalDateTime to, Integer slotMinutes) {
+        Duration booking = conflictIndex.getSlotDuration();
+        Duration slot = slotMinutes == null ? booking : Duration.ofMinutes(slotMinutes);
+        if (slot.toMinutes() < 5) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "slotMinutes must be at least 5");
+        }
+        LocalDateTime start = from == null || from.isBefore(LocalDateTime.now()) ? LocalDateTime.now() : from;
+        LocalDateTime end = to == null ? start.plusDays(7) : to;
+        if (end.isAfter(start.plus(maxAvailabilityRange))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Availability range is too large");
+        }
+
+        // A new booking at t occupies [t, t + max(slot, booking)); booked ones occupy [s, s + booking)
+        Duration occupied = slot.compareTo(booking) > 0 ? slot : booking;
+        List<LocalDateTime> booked = bookedStarts(sellerId, propertyId, start, end.plus(occupied));
+
+        List<AvailabilityResponse.Slot> free = new ArrayList<>();
+        int next = 0;
+        for (LocalDate day = start.toLocalDate(); day.isBefore(end.toLocalDate().plusDays(1)); day = day.plusDays(1)) {
+            WorkingHours.Window window = workingHours.on(day.getDayOfWeek());
+            if (window == null) {
+                continue;
+            }
+            LocalDateTime close = day.atTime(window.getClose());
+            for (LocalDateTime t = day.atTime(window.getOpen()); !t.plus(slot).isAfter(close); t = t.plus(slot)) {
+                if (t.isBefore(start) || t.plus(slot).isAfter(end)) {
+                    continue;
+                }
+                // Booked intervals all have the same length, so they end in start order
+                while (next < booked.size() && !booked.get(next).plus(booking).isAfter(t)) {
+                    next++;
+                }
+                if (next < booked.size() && booked.get(next).isBefore(t.plus(occupied))) {
+                    continue;
+                }
+                free.add(new AvailabilityResponse.Slot(t, t.plus(slot)));
+            }
+        }
+
+        return AvailabilityResponse.builder()
+                .propertyId(propertyId)
+                .sellerId(sellerId)
+                .slotMinutes((int) slot.toMinutes())
+                .slots(free)
+                .build();
+    }
+
+    /**
+     * Start times, ascending, of active bookings of the seller or the property that can
+     * touch [from, to). From memory while the conflict index follows every replica's
+     * writes; otherwise it would miss bookings made elsewhere, so the window is read
+     * from Mongo through the (sellerId, scheduledAt) and (propertyId, scheduledAt) indexes.
+     */
+    private List<LocalDateTime> bookedStarts(UUID sellerId, UUID propertyId, LocalDateTime from, LocalDateTime to) {
+        if (conflictIndex.isSynced()) {
+            requireCalendar();
+            return conflictIndex.bookedStarts(sellerId, propertyId, from, to);
+        }
+        Query query = Query.query(new Criteria().orOperator(
+                        Criteria.where("sellerId").is(sellerId), Criteria.where("propertyId").is(propertyId))
+                .and("scheduledAt").gt(from.minus(conflictIndex.getSlotDuration())).lt(to)
+                .and("status").in(AppointmentConflictIndex.ACTIVE_STATUSES));
+        query.fields().include("scheduledAt");
+        TreeSet<LocalDateTime> starts = new TreeSet<>();
+        for (Appointment appointment : mongoTemplate.find(query, Appointment.class)) {
+            starts.add(appointment.getScheduledAt());
+        }
+        return new ArrayList<>(starts);
+    }
+
+    @Override
+    public void deleteAppointment(String id, Long expectedVersion) {
         ObjectId objectId = new ObjectId(id);
-        Appointment entity = repository.findById(objectId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", Appointment.Status.CANCELLED)
+                .set("canceledAt", now)
+                .set("updatedAt", now);
+
+        // Cancelled or completed appointments match nothing, so they are not cancelled again (409 from modify)
+        Criteria criteria = Criteria.where("_id").is(objectId).and("status").in(CANCELLABLE);
+        Appointment previous = modify(objectId, criteria, update, expectedVersion);
+        conflictIndex.remove(objectId);
+        slotClaims.releaseAll(List.of(objectId));
 
-        entity.setStatus(Appointment.Status.CANCELLED);
-        entity.setCanceledAt(LocalDateTime.now());
+        Appointment.Status previousStatus = previous.getStatus();
+        previous.setStatus(Appointment.Status.CANCELLED);
+        rollups.record(rollups.delta().move(previous, previousStatus));
+    }
 
-        repository.save(entity);
+    @Override
+    public List<DailyStatsResponse> getDailyStats(UUID sellerId, UUID propertyId, LocalDate from, LocalDate to) {
+        if ((sellerId == null) == (propertyId == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Exactly one of sellerId or propertyId is required");
+        }
+        if (to.isBefore(from) || from.plusDays(maxStatsDays).isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid or too large date range");
+        }
+        AppointmentDailyStats.Scope scope = sellerId != null
+                ? AppointmentDailyStats.Scope.SELLER
+                : AppointmentDailyStats.Scope.PROPERTY;
+        UUID key = sellerId != null ? sellerId : propertyId;
+        return rollups.find(scope, key, from, to).stream()
+                .map(stats -> new DailyStatsResponse(stats.getDay(), stats.getCounts()))
+                .toList();
     }
 }
@@ -0,0 +1,80 @@
+package com.real_estate.appointmentservice.analytics;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.entity.AppointmentDailyStats;
+import com.real_estate.appointmentservice.entity.AppointmentDailyStats.Scope;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentRollupsTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations ops;
+
+    @Test
+    void recountOverwritesTheKeysBucketsFromTheAppointments() {
+        UUID seller = UUID.randomUUID();
+        when(mongoTemplate.aggregateStream(any(Aggregation.class), eq(Appointment.class),
+                eq(AppointmentRollups.DayCount.class))).thenReturn(Stream.of(
+                new AppointmentRollups.DayCount(seller, "2030-05-06", Appointment.Status.PENDING, 2),
+                new AppointmentRollups.DayCount(seller, "2030-05-06", Appointment.Status.CANCELLED, 1)));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AppointmentRollups.COLLECTION)).thenReturn(ops);
+
+        new AppointmentRollups(mongoTemplate).recount(Scope.SELLER, List.of(seller));
+
+        ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+        verify(mongoTemplate).aggregateStream(aggregation.capture(), eq(Appointment.class),
+                eq(AppointmentRollups.DayCount.class));
+        // Counted in MongoDB, one row per key, day and status
+        Document group = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(2).get("$group", Document.class);
+        assertThat(group.get("_id", Document.class)).containsOnlyKeys("key", "day", "status");
+
+        ArgumentCaptor<Query> bucket = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> counts = ArgumentCaptor.forClass(Update.class);
+        verify(ops).upsert(bucket.capture(), counts.capture());
+        String id = AppointmentDailyStats.idOf(Scope.SELLER, seller, LocalDate.of(2030, 5, 6));
+        assertThat(bucket.getValue().getQueryObject().get("_id")).isEqualTo(id);
+        Document set = (Document) counts.getValue().getUpdateObject().get("$set");
+        assertThat((Document) set.get("counts")).containsEntry("PENDING", 2L).containsEntry("CANCELLED", 1L);
+
+        // Stale days of the seller are removed, the recounted one is kept
+        ArgumentCaptor<Query> stale = ArgumentCaptor.forClass(Query.class);
+        verify(ops).remove(stale.capture());
+        Document range = (Document) stale.getValue().getQueryObject().get("_id");
+        assertThat(range.getString("$gte")).isEqualTo("seller:" + seller + ":");
+        assertThat(range.get("$nin", List.class)).containsExactly(id);
+        verify(ops).execute();
+    }
+
+    @Test
+    void recountOfNothingWritesNothing() {
+        new AppointmentRollups(mongoTemplate).recount(Scope.PROPERTY, List.of());
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(String.class));
+    }
+}
@@ -0,0 +1,97 @@
+package com.real_estate.appointmentservice.booking;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.real_estate.appointmentservice.entity.Appointment;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.Message;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentCalendarSyncTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2030, 5, 6, 10, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final AppointmentConflictIndex index = new AppointmentConflictIndex(Duration.ofHours(1));
+
+    private final UUID seller = UUID.randomUUID();
+    private final UUID property = UUID.randomUUID();
+
+    @Test
+    void cancellationOnAnotherReplicaFreesTheSlot() {
+        Appointment booked = appointment(Appointment.Status.CONFIRMED);
+        index.rebuild(Stream.of(booked));
+        Appointment cancelled = appointment(Appointment.Status.CANCELLED);
+        cancelled.setId(booked.getId());
+
+        sync().onChange(message(OperationType.UPDATE, booked.getId(), cancelled));
+
+        assertThat(index.conflicts(seller, property, TEN, null)).isFalse();
+    }
+
+    @Test
+    void bookingOnAnotherReplicaTakesTheSlot() {
+        index.rebuild(Stream.empty());
+        Appointment booked = appointment(Appointment.Status.PENDING);
+
+        sync().onChange(message(OperationType.INSERT, booked.getId(), booked));
+
+        assertThat(index.conflicts(seller, UUID.randomUUID(), TEN.plusMinutes(30), null)).isTrue();
+    }
+
+    @Test
+    void invalidatedStreamMakesTheIndexAdvisory() {
+        index.setSynced(true);
+        @SuppressWarnings("unchecked")
+        Message<ChangeStreamDocument<Document>, Appointment> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(null);
+
+        sync().onChange(message);
+
+        assertThat(index.isSynced()).isFalse();
+    }
+
+    private AppointmentCalendarSync sync() {
+        return new AppointmentCalendarSync(mongoTemplate, index, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Message<ChangeStreamDocument<Document>, Appointment> message(OperationType type, ObjectId id, Appointment body) {
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(raw.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonObjectId(id)));
+        when(raw.getOperationType()).thenReturn(type);
+        Message<ChangeStreamDocument<Document>, Appointment> message = mock(Message.class);
+        when(message.getRaw()).thenReturn(raw);
+        when(message.getBody()).thenReturn(body);
+        return message;
+    }
+
+    private Appointment appointment(Appointment.Status status) {
+        return Appointment.builder()
+                .id(new ObjectId())
+                .sellerId(seller)
+                .propertyId(property)
+                .scheduledAt(TEN)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package com.real_estate.appointmentservice.booking;
+
+import com.real_estate.appointmentservice.entity.Appointment;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppointmentConflictIndexTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2030, 5, 6, 10, 0);
+
+    private final AppointmentConflictIndex index = new AppointmentConflictIndex(Duration.ofHours(1));
+
+    private final UUID seller = UUID.randomUUID();
+    private final UUID property = UUID.randomUUID();
+
+    @Test
+    void overlapsWithinOneSlotDurationOnly() {
+        index.update(appointment(seller, property, TEN, Appointment.Status.PENDING));
+
+        assertThat(index.conflicts(seller, UUID.randomUUID(), TEN.plusMinutes(59), null)).isTrue();
+        assertThat(index.conflicts(seller, UUID.randomUUID(), TEN.minusMinutes(59), null)).isTrue();
+        assertThat(index.conflicts(UUID.randomUUID(), property, TEN.plusMinutes(30), null)).isTrue();
+        assertThat(index.conflicts(seller, property, TEN.plusHours(1), null)).isFalse();
+        assertThat(index.conflicts(seller, property, TEN.minusHours(1), null)).isFalse();
+    }
+
+    @Test
+    void ignoresTheAppointmentBeingMoved() {
+        Appointment booked = appointment(seller, property, TEN, Appointment.Status.CONFIRMED);
+        index.update(booked);
+
+        assertThat(index.conflicts(seller, property, TEN.plusMinutes(15), booked.getId())).isFalse();
+    }
+
+    @Test
+    void movedAndInactiveAppointmentsFreeTheirSlot() {
+        Appointment booked = appointment(seller, property, TEN, Appointment.Status.PENDING);
+        index.update(booked);
+
+        booked.setScheduledAt(TEN.plusHours(3));
+        index.update(booked);
+        assertThat(index.conflicts(seller, property, TEN, null)).isFalse();
+        assertThat(index.conflicts(seller, property, TEN.plusHours(3), null)).isTrue();
+
+        booked.setStatus(Appointment.Status.CANCELLED);
+        index.update(booked);
+        assertThat(index.conflicts(seller, property, TEN.plusHours(3), null)).isFalse();
+    }
+
+    @Test
+    void bookedStartsCoverEveryBookingTouchingTheWindow() {
+        index.update(appointment(seller, UUID.randomUUID(), TEN.minusMinutes(30), Appointment.Status.PENDING));
+        index.update(appointment(UUID.randomUUID(), property, TEN.plusHours(2), Appointment.Status.CONFIRMED));
+        index.update(appointment(seller, UUID.randomUUID(), TEN.minusHours(1), Appointment.Status.PENDING));
+        index.update(appointment(seller, UUID.randomUUID(), TEN.plusHours(5), Appointment.Status.PENDING));
+
+        assertThat(index.bookedStarts(seller, property, TEN, TEN.plusHours(4)))
+                .containsExactly(TEN.minusMinutes(30), TEN.plusHours(2));
+    }
+
+    @Test
+    void notReadyUntilRebuilt() {
+        assertThat(index.isReady()).isFalse();
+
+        index.rebuild(Stream.of(appointment(seller, property, TEN, Appointment.Status.PENDING)));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.conflicts(seller, property, TEN, null)).isTrue();
+    }
+
+    @Test
+    void rebuildDropsWhatWasThereBefore() {
+        index.update(appointment(seller, property, TEN, Appointment.Status.PENDING));
+
+        index.rebuild(Stream.empty());
+
+        assertThat(index.conflicts(seller, property, TEN, null)).isFalse();
+    }
+
+    @Test
+    void changesStreamedDuringARebuildWinOverTheLoadedState() {
+        Appointment booked = appointment(seller, property, TEN, Appointment.Status.PENDING);
+        Appointment cancelled = appointment(seller, property, TEN, Appointment.Status.CANCELLED);
+        cancelled.setId(booked.getId());
+
+        // The load read the appointment before another replica cancelled it
+        index.rebuild(Stream.of(booked).peek(a -> index.applyChange(cancelled.getId(), cancelled)));
+
+        assertThat(index.conflicts(seller, property, TEN, null)).isFalse();
+    }
+
+    @Test
+    void streamedDeleteFreesTheSlot() {
+        Appointment booked = appointment(seller, property, TEN, Appointment.Status.PENDING);
+        index.rebuild(Stream.of(booked));
+
+        index.applyChange(booked.getId(), null);
+
+        assertThat(index.conflicts(seller, property, TEN, null)).isFalse();
+    }
+
+    @Test
+    void concurrentCreatesForOneSlotBookItOnce() throws Exception {
+        int writers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> outcomes = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                // Same seller, overlapping start times, different properties
+                LocalDateTime at = TEN.plusMinutes(i);
+                UUID otherProperty = UUID.randomUUID();
+                outcomes.add(pool.submit(() -> {
+                    start.await();
+                    return create(seller, otherProperty, at);
+                }));
+            }
+            start.countDown();
+
+            int booked = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                if (outcome.get(10, TimeUnit.SECONDS)) {
+                    booked++;
+                }
+            }
+            assertThat(booked).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentCreatesForDifferentSlotsAllSucceed() throws Exception {
+        int writers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> outcomes = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                LocalDateTime at = TEN.plusHours(i);
+                outcomes.add(pool.submit(() -> {
+                    start.await();
+                    return create(seller, property, at);
+                }));
+            }
+            start.countDown();
+
+            for (Future<Boolean> outcome : outcomes) {
+                assertThat(outcome.get(10, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // The create path of the service: check and record under the slot lock
+    private boolean create(UUID sellerId, UUID propertyId, LocalDateTime at) {
+        return index.withSlotLock(sellerId, propertyId, () -> {
+            if (index.conflicts(sellerId, propertyId, at, null)) {
+                return false;
+            }
+            Thread.yield();
+            index.update(appointment(sellerId, propertyId, at, Appointment.Status.PENDING));
+            return true;
+        });
+    }
+
+    private static Appointment appointment(UUID sellerId, UUID propertyId, LocalDateTime at, Appointment.Status status) {
+        return Appointment.builder()
+                .id(new ObjectId())
+                .sellerId(sellerId)
+                .propertyId(propertyId)
+                .scheduledAt(at)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.real_estate.appointmentservice.booking;
+
+import com.mongodb.client.result.UpdateResult;
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.entity.SlotClaim;
+import org.bson.BsonObjectId;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlotClaimsTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2030, 5, 6, 10, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final ObjectId appointmentId = new ObjectId();
+    private final UUID seller = UUID.randomUUID();
+    private final UUID property = UUID.randomUUID();
+
+    private SlotClaims slotClaims() {
+        return new SlotClaims(mongoTemplate, Duration.ofHours(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void freeSlotIsClaimed() {
+        stubUpsert(true);
+        when(mongoTemplate.find(any(Query.class), eq(SlotClaim.class))).thenReturn(List.of());
+
+        assertThat(slotClaims().claim(appointmentId, seller, property, TEN)).isTrue();
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(SlotClaim.class));
+    }
+
+    @Test
+    void freshRivalClaimWinsAndOursIsReleased() {
+        stubUpsert(true);
+        when(mongoTemplate.find(any(Query.class), eq(SlotClaim.class)))
+                .thenReturn(List.of(rival(LocalDateTime.now())));
+
+        assertThatThrownBy(() -> slotClaims().claim(appointmentId, seller, property, TEN))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        verify(mongoTemplate).remove(any(Query.class), eq(SlotClaim.class));
+    }
+
+    @Test
+    void claimHeldBeforeIsKeptOnConflict() {
+        stubUpsert(false);
+        when(mongoTemplate.find(any(Query.class), eq(SlotClaim.class)))
+                .thenReturn(List.of(rival(LocalDateTime.now())));
+
+        assertThatThrownBy(() -> slotClaims().claim(appointmentId, seller, property, TEN))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(SlotClaim.class));
+    }
+
+    @Test
+    void oldRivalWithActiveAppointmentStillConflicts() {
+        stubUpsert(true);
+        when(mongoTemplate.find(any(Query.class), eq(SlotClaim.class)))
+                .thenReturn(List.of(rival(LocalDateTime.now().minusHours(1))));
+        when(mongoTemplate.exists(any(Query.class), eq(Appointment.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> slotClaims().claim(appointmentId, seller, property, TEN))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void leftoverClaimIsClearedAndDoesNotBlock() {
+        stubUpsert(true);
+        when(mongoTemplate.find(any(Query.class), eq(SlotClaim.class)))
+                .thenReturn(List.of(rival(LocalDateTime.now().minusHours(1))));
+        when(mongoTemplate.exists(any(Query.class), eq(Appointment.class))).thenReturn(false);
+
+        assertThat(slotClaims().claim(appointmentId, seller, property, TEN)).isTrue();
+        // Only the leftover is removed, not our own claim
+        verify(mongoTemplate).remove(any(Query.class), eq(SlotClaim.class));
+    }
+
+    private void stubUpsert(boolean inserted) {
+        UpdateResult result = inserted
+                ? UpdateResult.acknowledged(0, 0L, new BsonObjectId(new ObjectId()))
+                : UpdateResult.acknowledged(1, 0L, null);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SlotClaim.class))).thenReturn(result);
+    }
+
+    private SlotClaim rival(LocalDateTime claimedAt) {
+        SlotClaim claim = new SlotClaim();
+        claim.setId(new ObjectId());
+        claim.setAppointmentId(new ObjectId());
+        claim.setSellerId(seller);
+        claim.setPropertyId(UUID.randomUUID());
+        claim.setStart(TEN.plusMinutes(30));
+        claim.setClaimedAt(claimedAt);
+        return claim;
+    }
+}
@@ -0,0 +1,119 @@
+package com.real_estate.appointmentservice.lifecycle;
+
+import com.mongodb.client.result.UpdateResult;
+import com.real_estate.appointmentservice.analytics.AppointmentRollups;
+import com.real_estate.appointmentservice.booking.AppointmentConflictIndex;
+import com.real_estate.appointmentservice.booking.SlotClaims;
+import com.real_estate.appointmentservice.entity.Appointment;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentLifecycleSchedulerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private SchedulerLease lease;
+    @Mock
+    private AppointmentConflictIndex conflictIndex;
+    @Mock
+    private SlotClaims slotClaims;
+    @Mock
+    private AppointmentRollups rollups;
+
+    private AppointmentLifecycleScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AppointmentLifecycleScheduler(mongoTemplate, lease, conflictIndex, slotClaims, rollups,
+                500, 20, Duration.ofMinutes(5));
+        when(lease.tryAcquire(any(), any())).thenReturn(true);
+        when(conflictIndex.getSlotDuration()).thenReturn(Duration.ofHours(1));
+    }
+
+    @Test
+    void expiredPendingAppointmentsReleaseTheirSlots() {
+        Appointment a = pending();
+        Appointment b = pending();
+        when(mongoTemplate.find(any(Query.class), eq(Appointment.class)))
+                .thenReturn(List.of(a, b), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Appointment.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        when(rollups.delta()).thenReturn(new AppointmentRollups.Delta());
+
+        scheduler.expireAppointments();
+
+        verify(conflictIndex).remove(a.getId());
+        verify(conflictIndex).remove(b.getId());
+        verify(slotClaims).releaseAll(List.of(a.getId(), b.getId()));
+    }
+
+    @Test
+    void appointmentConfirmedMeanwhileKeepsItsSlot() {
+        Appointment a = pending();
+        Appointment confirmed = pending();
+        // Candidates, then the re-read of what this batch wrote, then no CONFIRMED ones due
+        when(mongoTemplate.find(any(Query.class), eq(Appointment.class)))
+                .thenReturn(List.of(a, confirmed), List.of(idOnly(a)), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Appointment.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(rollups.delta()).thenReturn(new AppointmentRollups.Delta());
+
+        scheduler.expireAppointments();
+
+        verify(conflictIndex).remove(a.getId());
+        verify(conflictIndex, never()).remove(confirmed.getId());
+        verify(slotClaims).releaseAll(List.of(a.getId()));
+    }
+
+    @Test
+    void batchThatLostEveryRaceReleasesNothing() {
+        Appointment confirmed = pending();
+        when(mongoTemplate.find(any(Query.class), eq(Appointment.class)))
+                .thenReturn(List.of(confirmed), List.of(), List.of());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Appointment.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        scheduler.expireAppointments();
+
+        verify(conflictIndex, never()).remove(any());
+        verify(slotClaims, never()).releaseAll(anyList());
+        verify(rollups, never()).record(any());
+    }
+
+    private static Appointment pending() {
+        Appointment appointment = new Appointment();
+        appointment.setId(new ObjectId());
+        appointment.setSellerId(UUID.randomUUID());
+        appointment.setPropertyId(UUID.randomUUID());
+        appointment.setScheduledAt(LocalDateTime.now().minusDays(1));
+        appointment.setStatus(Appointment.Status.PENDING);
+        return appointment;
+    }
+
+    private static Appointment idOnly(Appointment appointment) {
+        Appointment projected = new Appointment();
+        projected.setId(appointment.getId());
+        return projected;
+    }
+}
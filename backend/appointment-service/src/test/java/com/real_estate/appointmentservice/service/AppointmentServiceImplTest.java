@@ -0,0 +1,276 @@
+package com.real_estate.appointmentservice.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.real_estate.appointmentservice.analytics.AppointmentRollups;
+import com.real_estate.appointmentservice.booking.AppointmentConflictIndex;
+import com.real_estate.appointmentservice.booking.SlotClaims;
+import com.real_estate.appointmentservice.booking.WorkingHours;
+import com.real_estate.appointmentservice.dto.AppointmentRequest;
+import com.real_estate.appointmentservice.dto.AvailabilityResponse;
+import com.real_estate.appointmentservice.dto.StatusChangeRequest;
+import com.real_estate.appointmentservice.dto.StatusChangeResult;
+import com.real_estate.appointmentservice.dto.StatusChangeResult.Outcome;
+import com.real_estate.appointmentservice.entity.Appointment;
+import com.real_estate.appointmentservice.repository.AppointmentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentServiceImplTest {
+
+    // A Monday well in the future, inside the 09:00-12:00 test working hours
+    private static final LocalDateTime MONDAY = LocalDateTime.now().plusWeeks(2)
+            .with(TemporalAdjusters.next(DayOfWeek.MONDAY)).toLocalDate().atStartOfDay();
+
+    @Mock
+    private AppointmentRepository repository;
+
+    @Mock
+    private SlotClaims slotClaims;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private AppointmentRollups rollups;
+
+    private final AppointmentConflictIndex conflictIndex = new AppointmentConflictIndex(Duration.ofHours(1));
+
+    private final UUID seller = UUID.randomUUID();
+    private final UUID property = UUID.randomUUID();
+
+    private AppointmentServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        WorkingHours workingHours = new WorkingHours(EnumSet.of(DayOfWeek.MONDAY), LocalTime.of(9, 0), LocalTime.of(12, 0));
+        service = new AppointmentServiceImpl(repository, conflictIndex, slotClaims, workingHours, mongoTemplate, rollups,
+                100, Duration.ofDays(31), 500, Duration.ofSeconds(2), 366);
+        conflictIndex.setSynced(true);
+    }
+
+    @Test
+    void updatedAtBackfillRunsOnce() {
+        when(mongoTemplate.exists(any(Query.class), eq("migrations"))).thenReturn(false, true);
+
+        service.backfillUpdatedAt();
+        service.backfillUpdatedAt();
+
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), any(Update.class), eq(Appointment.class));
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq("migrations"));
+    }
+
+    @Test
+    void availabilityIsUnavailableUntilTheCalendarIsLoaded() {
+        assertThatThrownBy(() -> service.getAvailability(property, seller, MONDAY, MONDAY.plusDays(1), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void sellerBookingsOnOtherPropertiesAreBusy() {
+        conflictIndex.rebuild(Stream.of(
+                appointment(seller, UUID.randomUUID(), MONDAY.withHour(9)),
+                appointment(UUID.randomUUID(), property, MONDAY.withHour(11))));
+
+        AvailabilityResponse availability = service.getAvailability(property, seller, MONDAY, MONDAY.plusDays(1), null);
+
+        assertThat(availability.getSlots())
+                .extracting(AvailabilityResponse.Slot::getStart)
+                .containsExactly(MONDAY.withHour(10));
+    }
+
+    @Test
+    void unsyncedAvailabilityReadsTheWindowFromMongo() {
+        // Not synced: a booking made on another replica is only in Mongo
+        conflictIndex.setSynced(false);
+        when(mongoTemplate.find(any(Query.class), eq(Appointment.class)))
+                .thenReturn(List.of(appointment(seller, UUID.randomUUID(), MONDAY.withHour(9))));
+
+        AvailabilityResponse availability = service.getAvailability(property, seller, MONDAY, MONDAY.plusDays(1), null);
+
+        assertThat(availability.getSlots())
+                .extracting(AvailabilityResponse.Slot::getStart)
+                .containsExactly(MONDAY.withHour(10), MONDAY.withHour(11));
+    }
+
+    @Test
+    void reactivationsInOneBatchConflictWithEachOther() {
+        conflictIndex.rebuild(Stream.empty());
+        Appointment first = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.RESCHEDULED);
+        Appointment second = appointment(seller, UUID.randomUUID(), MONDAY.withHour(10).plusMinutes(30), Appointment.Status.RESCHEDULED);
+        when(repository.findAllById(any())).thenReturn(List.of(first, second));
+        when(slotClaims.claim(any(), any(), any(), any())).thenReturn(true);
+        stubBulk(1);
+        when(rollups.delta()).thenReturn(new AppointmentRollups(mongoTemplate).delta());
+
+        List<StatusChangeResult> results = service.changeStatuses(List.of(
+                item(first, Appointment.Status.CONFIRMED), item(second, Appointment.Status.CONFIRMED)));
+
+        assertThat(results).extracting(StatusChangeResult::getOutcome).containsExactly(Outcome.APPLIED, Outcome.CONFLICT);
+        verify(slotClaims, times(1)).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    void reactivationHoldsTheSlotInTheIndex() {
+        conflictIndex.rebuild(Stream.empty());
+        Appointment rescheduled = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.RESCHEDULED);
+        when(repository.findAllById(any())).thenReturn(List.of(rescheduled));
+        when(slotClaims.claim(any(), any(), any(), any())).thenReturn(true);
+        stubBulk(1);
+        when(rollups.delta()).thenReturn(new AppointmentRollups(mongoTemplate).delta());
+
+        service.changeStatuses(List.of(item(rescheduled, Appointment.Status.CONFIRMED)));
+
+        assertThat(conflictIndex.conflicts(seller, UUID.randomUUID(), MONDAY.withHour(10), null)).isTrue();
+    }
+
+    @Test
+    void unsyncedIndexHitIsLeftToTheSlotClaim() {
+        // Booked here, but possibly cancelled on another replica since
+        conflictIndex.rebuild(Stream.of(appointment(seller, property, MONDAY.withHour(10))));
+        conflictIndex.setSynced(false);
+        AppointmentRequest request = new AppointmentRequest();
+        request.setBuyerId(UUID.randomUUID());
+        request.setSellerId(seller);
+        request.setPropertyId(property);
+        request.setScheduledAt(MONDAY.withHour(10));
+        when(slotClaims.claim(any(), any(), any(), any())).thenReturn(true);
+        when(repository.insert(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(rollups.delta()).thenReturn(new AppointmentRollups(mongoTemplate).delta());
+
+        assertThat(service.createAppointment(request).getStatus()).isEqualTo(Appointment.Status.PENDING);
+        verify(slotClaims).claim(any(), eq(seller), eq(property), eq(MONDAY.withHour(10)));
+    }
+
+    @Test
+    void sameStatusSetConcurrentlyIsAConflict() {
+        conflictIndex.rebuild(Stream.empty());
+        Appointment pending = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.PENDING);
+        Appointment storedByOther = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.CONFIRMED);
+        storedByOther.setId(pending.getId());
+        storedByOther.setUpdatedAt(LocalDateTime.now().minusSeconds(5));
+        when(repository.findAllById(any())).thenReturn(List.of(pending), List.of(storedByOther));
+        stubBulk(0);
+        when(rollups.delta()).thenReturn(new AppointmentRollups(mongoTemplate).delta());
+
+        List<StatusChangeResult> results = service.changeStatuses(List.of(item(pending, Appointment.Status.CONFIRMED)));
+
+        assertThat(results).extracting(StatusChangeResult::getOutcome).containsExactly(Outcome.CONFLICT);
+        assertThat(results.get(0).getStatus()).isEqualTo(Appointment.Status.CONFIRMED);
+    }
+
+    @Test
+    void failedBatchGivesBackHeldSlots() {
+        conflictIndex.rebuild(Stream.empty());
+        Appointment rescheduled = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.RESCHEDULED);
+        when(repository.findAllById(any())).thenReturn(List.of(rescheduled));
+        when(slotClaims.claim(any(), any(), any(), any())).thenReturn(true);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Appointment.class))).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThatThrownBy(() -> service.changeStatuses(List.of(item(rescheduled, Appointment.Status.CONFIRMED))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(conflictIndex.conflicts(seller, property, MONDAY.withHour(10), null)).isFalse();
+        verify(slotClaims).release(rescheduled.getId(), rescheduled.getScheduledAt());
+    }
+
+    @Test
+    void inactiveAppointmentCannotBeMoved() {
+        conflictIndex.rebuild(Stream.empty());
+        Appointment cancelled = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.CANCELLED);
+        AppointmentRequest request = new AppointmentRequest();
+        request.setBuyerId(UUID.randomUUID());
+        request.setSellerId(seller);
+        request.setPropertyId(property);
+        request.setScheduledAt(MONDAY.withHour(11));
+        when(slotClaims.claim(any(), any(), any(), any())).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Appointment.class)))
+                .thenReturn(null);
+        when(repository.findById(cancelled.getId())).thenReturn(Optional.of(cancelled));
+
+        assertThatThrownBy(() -> service.updateAppointment(cancelled.getId().toHexString(), request))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        verify(slotClaims).release(cancelled.getId(), MONDAY.withHour(11));
+        assertThat(conflictIndex.conflicts(seller, property, MONDAY.withHour(11), null)).isFalse();
+    }
+
+    @Test
+    void completedAppointmentIsNotCancelledAgain() {
+        Appointment completed = appointment(seller, property, MONDAY.withHour(10), Appointment.Status.COMPLETED);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Appointment.class)))
+                .thenReturn(null);
+        when(repository.findById(completed.getId())).thenReturn(Optional.of(completed));
+
+        assertThatThrownBy(() -> service.deleteAppointment(completed.getId().toHexString(), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        verify(mongoTemplate).findAndModify(argThat(query -> query.getQueryObject().containsKey("status")),
+                any(Update.class), any(FindAndModifyOptions.class), eq(Appointment.class));
+        verify(slotClaims, never()).releaseAll(any());
+        verify(rollups, never()).record(any());
+    }
+
+    private void stubBulk(int matched) {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Appointment.class))).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(), List.of()));
+    }
+
+    private static StatusChangeRequest.Item item(Appointment appointment, Appointment.Status status) {
+        StatusChangeRequest.Item item = new StatusChangeRequest.Item();
+        item.setId(appointment.getId().toHexString());
+        item.setStatus(status);
+        return item;
+    }
+
+    private static Appointment appointment(UUID sellerId, UUID propertyId, LocalDateTime at) {
+        return appointment(sellerId, propertyId, at, Appointment.Status.CONFIRMED);
+    }
+
+    private static Appointment appointment(UUID sellerId, UUID propertyId, LocalDateTime at, Appointment.Status status) {
+        return Appointment.builder()
+                .id(new ObjectId())
+                .sellerId(sellerId)
+                .propertyId(propertyId)
+                .scheduledAt(at)
+                .status(status)
+                .build();
+    }
+}
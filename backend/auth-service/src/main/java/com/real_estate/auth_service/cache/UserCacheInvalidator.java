@@ -0,0 +1,62 @@
+package com.real_estate.auth_service.cache;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached profiles when a user document changes anywhere: other replicas,
+ * admin tools or direct edits in the database, so suspended, logged out or renamed
+ * users are not served from the cache until the TTL. Subscribes to the change
+ * stream of the users collection, which needs Mongo to run as a replica set, so it
+ * is only active with auth.profile-cache.change-stream.enabled=true.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auth.profile-cache.change-stream.enabled", havingValue = "true")
+public class UserCacheInvalidator {
+
+    private final UserProfileCache profileCache;
+    private final MessageListenerContainer container;
+
+    public UserCacheInvalidator(UserProfileCache profileCache, MongoTemplate mongoTemplate) {
+        this.profileCache = profileCache;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+    }
+
+    @PostConstruct
+    public void start() {
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.builder(this::onChange)
+                .collection("users")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, Document.class);
+        container.start();
+        log.info("Listening for user changes to invalidate the profile cache");
+    }
+
+    @PreDestroy
+    public void stop() {
+        container.stop();
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        Document user = message.getBody();
+        if (user == null || user.getString("firebaseUid") == null) {
+            // deletes carry only the _id, which is not the cache key
+            profileCache.invalidateAll();
+            return;
+        }
+        profileCache.invalidate(user.getString("firebaseUid"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.real_estate.auth_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.real_estate.auth_service.dto.UserResponse;
+import com.real_estate.auth_service.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profiles and token generations of ACTIVE users keyed by firebaseUid, so login
+ * and profile reads are served without a Mongo round trip. Users in any other
+ * status are never cached. Entries are evicted wherever the account changes:
+ * status changes and logouts evict on the replica that wrote them, and
+ * {@link UserCacheInvalidator} evicts on every other replica. Without the change
+ * stream, another replica keeps serving a suspended or logged out user (and signs
+ * tokens with the old generation) until the entry expires after the TTL. Hit ratio
+ * is published as userProfiles cache metrics and the age of served entries as
+ * auth.profile.cache.staleness.
+ */
+@Component
+public class UserProfileCache {
+
+    private final Cache<String, Entry> cache;
+    private final Timer staleness;
+
+    public UserProfileCache(@Value("${auth.profile-cache.max-size:50000}") long maxSize,
+                            @Value("${auth.profile-cache.ttl:PT5M}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userProfiles");
+        this.staleness = Timer.builder("auth.profile.cache.staleness")
+                .description("Age of cached profiles when they are served")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Null means not cached
+    public CachedAccount getIfPresent(String firebaseUid) {
+        Entry entry = cache.getIfPresent(firebaseUid);
+        if (entry == null) {
+            return null;
+        }
+        staleness.record(System.nanoTime() - entry.cachedAt, TimeUnit.NANOSECONDS);
+        return entry.account;
+    }
+
+    public void put(UserResponse profile, long tokenGeneration) {
+        if (profile.getStatus() == User.Status.ACTIVE) {
+            cache.put(profile.getFirebaseUid(), new Entry(new CachedAccount(profile, tokenGeneration), System.nanoTime()));
+        } else {
+            cache.invalidate(profile.getFirebaseUid());
+        }
+    }
+
+    public void invalidate(String firebaseUid) {
+        if (firebaseUid != null) {
+            cache.invalidate(firebaseUid);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public record CachedAccount(UserResponse profile, long tokenGeneration) {
+    }
+
+    private static final class Entry {
+        final CachedAccount account;
+        final long cachedAt;
+
+        Entry(CachedAccount account, long cachedAt) {
+            this.account = account;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.real_estate.auth_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.real_estate.common.security.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Firebase ID tokens that have already been verified, keyed by the SHA-256 of the
+ * token so raw tokens are never held in memory. Each entry expires at the token's
+ * own exp claim, so a cached token is never accepted after Firebase would reject it.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${firebase.token-cache.max-size:100000}") long maxSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, VerifiedToken>writing((key, token) -> untilExpiry(token)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedFirebaseTokens");
+    }
+
+    public VerifiedToken getIfPresent(String idToken) {
+        return cache.getIfPresent(keyOf(idToken));
+    }
+
+    public void put(String idToken, VerifiedToken token) {
+        if (!untilExpiry(token).isZero()) {
+            cache.put(keyOf(idToken), token);
+        }
+    }
+
+    private static Duration untilExpiry(VerifiedToken token) {
+        Duration remaining = Duration.between(Instant.now(), Instant.ofEpochSecond(token.getExpiresAt()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static String keyOf(String idToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(idToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.auth.FirebaseAuth;
+import com.real_estate.common.security.FirebaseSigningKeys;
+import com.real_estate.common.security.FirebaseTokenVerifier;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -13,6 +15,7 @@ import org.springframework.core.io.ClassPathResource;
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 
 @Slf4j
 @Configuration
@@ -57,4 +60,18 @@ public class FirebaseConfig {
     public String firebaseProjectId() {
         return projectId;
     }
+    
+    // Local ID token verification against cached signing keys (shared with the api-gateway)
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public FirebaseSigningKeys firebaseSigningKeys(
+            @Value("${firebase.keys.url:https://www.googleapis.com/robot/v1/metadata/x509/securetoken@system.gserviceaccount.com}") String keysUrl,
+            @Value("${firebase.keys.max-stale:PT6H}") Duration maxStale) {
+        return new FirebaseSigningKeys(keysUrl, maxStale);
+    }
+    
+    @Bean
+    public FirebaseTokenVerifier firebaseTokenVerifier(FirebaseSigningKeys signingKeys,
+                                                       @Value("${firebase.token.clock-skew:PT30S}") Duration clockSkew) {
+        return new FirebaseTokenVerifier(signingKeys, projectId, clockSkew);
+    }
 }
@@ -1,8 +1,10 @@
 package com.real_estate.auth_service.config;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
+import com.real_estate.auth_service.security.PlatformTokenService;
+import com.real_estate.auth_service.service.FirebaseService;
+import com.real_estate.common.security.InvalidTokenException;
+import com.real_estate.common.security.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,7 +29,8 @@ import java.io.IOException;
 @Slf4j
 public class SecurityConfig {
 
-    private final FirebaseAuth firebaseAuth;
+    private final FirebaseService firebaseService;
+    private final PlatformTokenService platformTokens;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -35,7 +38,8 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("/api/auth/register", "/api/auth/login").permitAll()
+                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/info", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(new FirebaseAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
@@ -61,7 +65,8 @@ public class SecurityConfig {
             }
 
             // Skip authentication for public endpoints
-            if (path.equals("/api/auth/register") || path.equals("/api/auth/login")) {
+            if (path.equals("/api/auth/register") || path.equals("/api/auth/login") || path.equals("/api/auth/refresh")
+                    || path.startsWith("/actuator/")) {
                 filterChain.doFilter(request, response);
                 return;
             }
@@ -79,7 +84,11 @@ public class SecurityConfig {
             String idToken = authorization.substring(7);
 
             try {
-                FirebaseToken decodedToken = firebaseAuth.verifyIdToken(idToken);
+                // Platform access tokens are checked locally with one HMAC; anything else is a
+                // Firebase ID token and shares FirebaseService's verified-token cache
+                VerifiedToken decodedToken = platformTokens.isPlatformToken(idToken)
+                        ? platformTokens.verify(idToken, PlatformTokenService.ACCESS).toVerifiedToken()
+                        : firebaseService.verifyIdToken(idToken);
 
                 // Create a simple authentication object
                 FirebaseAuthenticationToken authentication = new FirebaseAuthenticationToken(decodedToken);
@@ -88,19 +97,19 @@ public class SecurityConfig {
                 log.debug("Firebase authentication successful for UID: {}", decodedToken.getUid());
                 filterChain.doFilter(request, response);
 
-            } catch (FirebaseAuthException e) {
+            } catch (FirebaseAuthException | InvalidTokenException e) {
                 log.error("Firebase authentication failed: {}", e.getMessage());
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
-                response.getWriter().write("{\"error\":\"Invalid Firebase token: " + e.getMessage() + "\"}");
+                response.getWriter().write("{\"error\":\"Invalid token: " + e.getMessage() + "\"}");
             }
         }
     }
 
     private static class FirebaseAuthenticationToken extends org.springframework.security.authentication.AbstractAuthenticationToken {
-        private final FirebaseToken firebaseToken;
+        private final VerifiedToken firebaseToken;
 
-        public FirebaseAuthenticationToken(FirebaseToken firebaseToken) {
+        public FirebaseAuthenticationToken(VerifiedToken firebaseToken) {
             super(null);
             this.firebaseToken = firebaseToken;
             setAuthenticated(true);
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -46,6 +47,21 @@ public class AuthController {
         }
     }
     
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody RefreshRequest request) {
+        try {
+            AuthResponse response = authService.refresh(request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Token refresh failed", e);
+            AuthResponse errorResponse = AuthResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build();
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+    }
+    
     @PostMapping("/logout")
     public ResponseEntity<AuthResponse> logout(@RequestHeader("Authorization") String authorization) {
         try {
@@ -88,6 +104,24 @@ public class AuthController {
         }
     }
     
+    @PutMapping("/users/{firebaseUid}/status")
+    public ResponseEntity<UserResponse> changeStatus(
+            @RequestHeader("Authorization") String authorization,
+            @PathVariable String firebaseUid,
+            @RequestBody UpdateStatusRequest request) {
+        try {
+            String idToken = extractTokenFromHeader(authorization);
+            UserResponse response = authService.changeStatus(idToken, firebaseUid, request.getStatus());
+            return ResponseEntity.ok(response);
+        } catch (AccessDeniedException e) {
+            log.warn("Status change refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (Exception e) {
+            log.error("Status change failed", e);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+    
     private String extractTokenFromHeader(String authorization) {
         if (authorization != null && authorization.startsWith("Bearer ")) {
             return authorization.substring(7);
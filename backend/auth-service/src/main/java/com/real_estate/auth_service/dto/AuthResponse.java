@@ -14,6 +14,9 @@ public class AuthResponse {
     private String message;
     private UserResponse user;
     private String accessToken;
+    private String refreshToken;
+    // Access token lifetime in seconds; null when accessToken is the Firebase ID token
+    private Long expiresIn;
     private boolean success;
 }
 
@@ -0,0 +1,16 @@
+package com.real_estate.auth_service.dto;
+
+import com.real_estate.auth_service.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateStatusRequest {
+    
+    private User.Status status;
+}
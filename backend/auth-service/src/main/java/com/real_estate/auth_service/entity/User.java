@@ -34,6 +34,9 @@ public class User {
     
     private Status status;
     
+    // Bumped on logout and status changes; refresh tokens issued under an older generation are revoked
+    private long tokenGeneration;
+    
     private LocalDateTime createdAt;
     
     private LocalDateTime updatedAt;
@@ -2,8 +2,10 @@ package com.real_estate.auth_service.repository;
 
 import com.real_estate.auth_service.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +15,14 @@ public interface UserRepository extends MongoRepository<User, String> {
     
     Optional<User> findByEmail(String email);
     
+    // Revokes every refresh token of the user; returns the number of users updated
+    @Update("{ '$inc': { 'tokenGeneration': 1 } }")
+    long findAndIncrementTokenGenerationByFirebaseUid(String firebaseUid);
+    
+    // Status change and revocation in one write; returns the number of users updated
+    @Update("{ '$set': { 'status': ?1, 'updatedAt': ?2 }, '$inc': { 'tokenGeneration': 1 } }")
+    long findAndSetStatusByFirebaseUid(String firebaseUid, User.Status status, LocalDateTime updatedAt);
+    
     boolean existsByFirebaseUid(String firebaseUid);
     
     boolean existsByEmail(String email);
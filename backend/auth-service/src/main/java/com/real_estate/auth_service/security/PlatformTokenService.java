@@ -0,0 +1,81 @@
+package com.real_estate.auth_service.security;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.real_estate.common.security.PlatformTokenVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Issues the platform's own short-lived tokens: compact JWTs signed with
+ * HMAC-SHA256 and carrying uid, email, role and the user's token generation, which
+ * revokes them once it is bumped. Several keys can be configured
+ * (auth.token.keys=kid:base64secret,...); new tokens are signed with
+ * auth.token.signing-kid and tokens signed with any configured key are accepted,
+ * so keys are rotated by adding a key, switching signing-kid, and removing the old
+ * key once the refresh TTL has passed. Verification is the shared
+ * {@link PlatformTokenVerifier} the api-gateway uses as well.
+ */
+@Slf4j
+@Component
+public class PlatformTokenService extends PlatformTokenVerifier {
+
+    public static final String ACCESS = PlatformTokenVerifier.ACCESS;
+    public static final String REFRESH = PlatformTokenVerifier.REFRESH;
+
+    private final String signingHeader;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+
+    public PlatformTokenService(@Value("${auth.token.keys:}") String keys,
+                                @Value("${auth.token.signing-kid:}") String signingKid,
+                                @Value("${auth.token.access-ttl:PT15M}") Duration accessTtl,
+                                @Value("${auth.token.refresh-ttl:P7D}") Duration refreshTtl) {
+        super(keys);
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        String signing = signingKid.isBlank() ? null : headerFor(signingKid.trim());
+        this.signingHeader = signing != null && hasKey(signing) ? signing : null;
+        if (signingHeader == null) {
+            log.warn("No platform token signing key configured; login will return the Firebase ID token as access token");
+        }
+    }
+
+    public boolean isEnabled() {
+        return signingHeader != null;
+    }
+
+    public long getAccessTtlSeconds() {
+        return accessTtl.toSeconds();
+    }
+
+    public String issue(String uid, String email, String role, long generation, String type) {
+        long now = System.currentTimeMillis() / 1000;
+        long exp = now + (REFRESH.equals(type) ? refreshTtl : accessTtl).toSeconds();
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = JSON.createGenerator(payload)) {
+            json.writeStartObject();
+            json.writeStringField("iss", ISSUER);
+            json.writeStringField("sub", uid);
+            if (email != null) {
+                json.writeStringField("email", email);
+            }
+            if (role != null) {
+                json.writeStringField("role", role);
+            }
+            json.writeStringField("typ", type);
+            json.writeNumberField("gen", generation);
+            json.writeNumberField("iat", now);
+            json.writeNumberField("exp", exp);
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        String signed = signingHeader + "." + BASE64URL.encodeToString(payload.toByteArray());
+        return signed + "." + BASE64URL.encodeToString(sign(signingHeader, signed, signed.length()));
+    }
+}
@@ -1,11 +1,18 @@
 package com.real_estate.auth_service.service;
 
 import com.google.firebase.auth.FirebaseAuthException;
+import com.real_estate.auth_service.cache.UserProfileCache;
 import com.real_estate.auth_service.dto.*;
 import com.real_estate.auth_service.entity.User;
 import com.real_estate.auth_service.repository.UserRepository;
+import com.real_estate.auth_service.security.PlatformTokenService;
+import com.real_estate.common.security.InvalidTokenException;
+import com.real_estate.common.security.PlatformToken;
+import com.real_estate.common.security.VerifiedToken;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,21 +22,31 @@ import java.util.Optional;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "auth.service", histogram = true)
 public class AuthService {
     
     private final UserRepository userRepository;
     private final FirebaseService firebaseService;
+    private final UserProfileCache profileCache;
+    private final PlatformTokenService platformTokens;
     
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         try {
-            // Verify Firebase token to ensure the user is authenticated
-            String firebaseUid = firebaseService.getUidFromToken(request.getIdToken());
+            // The role is signed into platform tokens and trusted downstream, so admins are never self-assigned
+            User.Role role = request.getRole() != null ? request.getRole() : User.Role.BUYER;
+            if (role == User.Role.ADMIN) {
+                throw new IllegalArgumentException("The ADMIN role cannot be chosen at registration");
+            }
+            
+            // Verify Firebase token once to ensure the user is authenticated
+            VerifiedToken token = firebaseService.verifyIdToken(request.getIdToken());
+            String firebaseUid = token.getUid();
             
             // Extract additional user info from Firebase token
-            String emailFromToken = firebaseService.getEmailFromToken(request.getIdToken());
-            String nameFromToken = firebaseService.getNameFromToken(request.getIdToken());
-            String pictureFromToken = firebaseService.getPictureFromToken(request.getIdToken());
+            String emailFromToken = token.getEmail();
+            String nameFromToken = token.getName();
+            String pictureFromToken = token.getPicture();
             
             // Use Firebase token data if available, otherwise use request data
             String finalEmail = emailFromToken != null ? emailFromToken : request.getEmail();
@@ -52,7 +69,7 @@ public class AuthService {
                     .firebaseUid(firebaseUid)
                     .name(finalName)
                     .email(finalEmail)
-                    .role(request.getRole())
+                    .role(role)
                     .imageUrl(finalPicture)
                     .status(User.Status.ACTIVE)
                     .createdAt(LocalDateTime.now())
@@ -60,17 +77,18 @@ public class AuthService {
                     .build();
             
             User savedUser = userRepository.save(user);
+            UserResponse profile = mapToUserResponse(savedUser);
+            profileCache.put(profile, savedUser.getTokenGeneration());
             
             log.info("User registered successfully: {}", savedUser.getEmail());
             
-            return AuthResponse.builder()
+            return withTokens(AuthResponse.builder(), profile, savedUser.getTokenGeneration(), request.getIdToken())
                     .success(true)
                     .message("User registered successfully")
-                    .user(mapToUserResponse(savedUser))
-                    .accessToken(request.getIdToken()) // Return Firebase token as access token
+                    .user(profile)
                     .build();
                     
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.error("Firebase authentication error during registration", e);
             throw new RuntimeException("Invalid Firebase token: " + e.getMessage(), e);
         } catch (Exception e) {
@@ -84,27 +102,26 @@ public class AuthService {
             // Verify Firebase token
             String firebaseUid = firebaseService.getUidFromToken(request.getIdToken());
             
-            // Find user in database
-            Optional<User> userOpt = userRepository.findByFirebaseUid(firebaseUid);
-            if (userOpt.isEmpty()) {
+            // Find user in cache or database
+            Optional<Account> accountOpt = findAccount(firebaseUid);
+            if (accountOpt.isEmpty()) {
                 throw new RuntimeException("User not found. Please register first.");
             }
             
-            User user = userOpt.get();
+            UserResponse user = accountOpt.get().profile();
             if (user.getStatus() != User.Status.ACTIVE) {
                 throw new RuntimeException("User account is not active");
             }
             
             log.info("User logged in successfully: {}", user.getEmail());
             
-            return AuthResponse.builder()
+            return withTokens(AuthResponse.builder(), user, accountOpt.get().tokenGeneration(), request.getIdToken())
                     .success(true)
                     .message("Login successful")
-                    .user(mapToUserResponse(user))
-                    .accessToken(request.getIdToken())
+                    .user(user)
                     .build();
                     
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.error("Firebase authentication error during login", e);
             throw new RuntimeException("Invalid Firebase token: " + e.getMessage(), e);
         } catch (Exception e) {
@@ -113,10 +130,46 @@ public class AuthService {
         }
     }
     
+    public AuthResponse refresh(RefreshRequest request) {
+        if (!platformTokens.isEnabled()) {
+            throw new RuntimeException("Token refresh is not enabled");
+        }
+        try {
+            PlatformToken token = platformTokens.verify(request.getRefreshToken(), PlatformTokenService.REFRESH);
+            
+            // Re-check the account uncached so a suspended or logged out user cannot keep refreshing
+            Optional<Account> accountOpt = loadAccount(token.getUid());
+            if (accountOpt.isEmpty()) {
+                throw new RuntimeException("User not found");
+            }
+            
+            Account account = accountOpt.get();
+            if (account.profile().getStatus() != User.Status.ACTIVE) {
+                throw new RuntimeException("User account is not active");
+            }
+            if (account.tokenGeneration() != token.getGeneration()) {
+                throw new RuntimeException("Refresh token has been revoked");
+            }
+            
+            UserResponse user = account.profile();
+            return withTokens(AuthResponse.builder(), user, account.tokenGeneration(), null)
+                    .success(true)
+                    .message("Token refreshed")
+                    .user(user)
+                    .build();
+                    
+        } catch (InvalidTokenException e) {
+            log.warn("Refresh token rejected: {}", e.getMessage());
+            throw new RuntimeException("Invalid refresh token: " + e.getMessage(), e);
+        }
+    }
+    
     public AuthResponse logout(String idToken) {
         try {
-            // Verify token to ensure it's valid
-            firebaseService.verifyIdToken(idToken);
+            // Verify token to ensure it's valid, then revoke the user's refresh tokens
+            String firebaseUid = uidFromToken(idToken);
+            userRepository.findAndIncrementTokenGenerationByFirebaseUid(firebaseUid);
+            profileCache.invalidate(firebaseUid);
             
             log.info("User logged out successfully");
             
@@ -125,7 +178,7 @@ public class AuthService {
                     .message("Logout successful")
                     .build();
                     
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.error("Firebase authentication error during logout", e);
             throw new RuntimeException("Invalid Firebase token: " + e.getMessage(), e);
         } catch (Exception e) {
@@ -136,16 +189,16 @@ public class AuthService {
     
     public UserResponse getProfile(String idToken) {
         try {
-            String firebaseUid = firebaseService.getUidFromToken(idToken);
+            String firebaseUid = uidFromToken(idToken);
             
-            Optional<User> userOpt = userRepository.findByFirebaseUid(firebaseUid);
+            Optional<UserResponse> userOpt = findProfile(firebaseUid);
             if (userOpt.isEmpty()) {
                 throw new RuntimeException("User not found");
             }
             
-            return mapToUserResponse(userOpt.get());
+            return userOpt.get();
             
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.error("Firebase authentication error during profile fetch", e);
             throw new RuntimeException("Invalid Firebase token: " + e.getMessage(), e);
         } catch (Exception e) {
@@ -157,7 +210,7 @@ public class AuthService {
     @Transactional
     public UserResponse updateProfile(String idToken, UpdateProfileRequest request) {
         try {
-            String firebaseUid = firebaseService.getUidFromToken(idToken);
+            String firebaseUid = uidFromToken(idToken);
             
             Optional<User> userOpt = userRepository.findByFirebaseUid(firebaseUid);
             if (userOpt.isEmpty()) {
@@ -170,12 +223,14 @@ public class AuthService {
             user.setUpdatedAt(LocalDateTime.now());
             
             User updatedUser = userRepository.save(user);
+            UserResponse profile = mapToUserResponse(updatedUser);
+            profileCache.put(profile, updatedUser.getTokenGeneration());
             
             log.info("User profile updated successfully: {}", updatedUser.getEmail());
             
-            return mapToUserResponse(updatedUser);
+            return profile;
             
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.error("Firebase authentication error during profile update", e);
             throw new RuntimeException("Invalid Firebase token: " + e.getMessage(), e);
         } catch (Exception e) {
@@ -184,6 +239,83 @@ public class AuthService {
         }
     }
     
+    // Admin only; every status change also revokes the user's refresh tokens
+    public UserResponse changeStatus(String idToken, String firebaseUid, User.Status status) {
+        try {
+            String callerUid = uidFromToken(idToken);
+            
+            // Read uncached, so a demoted or suspended admin loses access at once
+            Optional<User> caller = userRepository.findByFirebaseUid(callerUid);
+            if (caller.isEmpty() || caller.get().getStatus() != User.Status.ACTIVE || caller.get().getRole() != User.Role.ADMIN) {
+                throw new AccessDeniedException("Only administrators can change a user's status");
+            }
+            if (status == null) {
+                throw new IllegalArgumentException("Status is required");
+            }
+            
+            if (userRepository.findAndSetStatusByFirebaseUid(firebaseUid, status, LocalDateTime.now()) == 0) {
+                throw new RuntimeException("User not found");
+            }
+            profileCache.invalidate(firebaseUid);
+            
+            log.info("User {} set to {} by {}", firebaseUid, status, callerUid);
+            
+            return userRepository.findByFirebaseUid(firebaseUid)
+                    .map(this::mapToUserResponse)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            
+        } catch (FirebaseAuthException | InvalidTokenException e) {
+            log.error("Firebase authentication error during status change", e);
+            throw new RuntimeException("Invalid Firebase token: " + e.getMessage(), e);
+        }
+    }
+    
+    // Accepts a platform access token or a Firebase ID token
+    private String uidFromToken(String token) throws FirebaseAuthException {
+        if (platformTokens.isPlatformToken(token)) {
+            return platformTokens.verify(token, PlatformTokenService.ACCESS).getUid();
+        }
+        return firebaseService.getUidFromToken(token);
+    }
+    
+    // Platform access and refresh tokens when a signing key is configured, otherwise the Firebase ID token as before
+    private AuthResponse.AuthResponseBuilder withTokens(AuthResponse.AuthResponseBuilder builder, UserResponse user,
+                                                        long tokenGeneration, String idToken) {
+        if (!platformTokens.isEnabled()) {
+            return builder.accessToken(idToken);
+        }
+        String role = user.getRole() != null ? user.getRole().name() : null;
+        return builder
+                .accessToken(platformTokens.issue(user.getFirebaseUid(), user.getEmail(), role, tokenGeneration, PlatformTokenService.ACCESS))
+                .refreshToken(platformTokens.issue(user.getFirebaseUid(), user.getEmail(), role, tokenGeneration, PlatformTokenService.REFRESH))
+                .expiresIn(platformTokens.getAccessTtlSeconds());
+    }
+    
+    private Optional<UserResponse> findProfile(String firebaseUid) {
+        return findAccount(firebaseUid).map(Account::profile);
+    }
+    
+    // A hit is served without reading Mongo; see UserProfileCache for how entries are evicted
+    private Optional<Account> findAccount(String firebaseUid) {
+        UserProfileCache.CachedAccount cached = profileCache.getIfPresent(firebaseUid);
+        if (cached != null) {
+            return Optional.of(new Account(cached.profile(), cached.tokenGeneration()));
+        }
+        return loadAccount(firebaseUid);
+    }
+    
+    // Always reads Mongo and refreshes the cache entry, or drops it if the user is gone or no longer ACTIVE
+    private Optional<Account> loadAccount(String firebaseUid) {
+        Optional<User> user = userRepository.findByFirebaseUid(firebaseUid);
+        if (user.isEmpty()) {
+            profileCache.invalidate(firebaseUid);
+            return Optional.empty();
+        }
+        UserResponse profile = mapToUserResponse(user.get());
+        profileCache.put(profile, user.get().getTokenGeneration());
+        return Optional.of(new Account(profile, user.get().getTokenGeneration()));
+    }
+    
     private UserResponse mapToUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
@@ -197,4 +329,7 @@ public class AuthService {
                 .updatedAt(user.getUpdatedAt())
                 .build();
     }
+    
+    private record Account(UserResponse profile, long tokenGeneration) {
+    }
 }
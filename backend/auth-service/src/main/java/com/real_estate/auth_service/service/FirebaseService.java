@@ -3,6 +3,11 @@ package com.real_estate.auth_service.service;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
+import com.real_estate.auth_service.cache.VerifiedTokenCache;
+import com.real_estate.common.security.FirebaseTokenVerifier;
+import com.real_estate.common.security.InvalidTokenException;
+import com.real_estate.common.security.VerifiedToken;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -10,23 +15,39 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "auth.firebase", histogram = true)
 public class FirebaseService {
     
     private final FirebaseAuth firebaseAuth;
+    private final VerifiedTokenCache verifiedTokens;
+    private final FirebaseTokenVerifier localVerifier;
     
     /**
-     * Verifies Firebase ID token and returns decoded token
+     * Verifies Firebase ID token and returns decoded token. A token is only
+     * cryptographically verified once; later calls reuse the cached result until
+     * the token expires. Verification runs locally against cached signing keys and
+     * falls back to the Firebase Admin SDK when no usable key is available.
      * @param idToken Firebase ID token to verify
      * @return Decoded Firebase token
-     * @throws FirebaseAuthException if token is invalid
+     * @throws FirebaseAuthException if the Firebase Admin SDK rejects the token
+     * @throws InvalidTokenException if local verification rejects the token
      */
-    public FirebaseToken verifyIdToken(String idToken) throws FirebaseAuthException {
+    public VerifiedToken verifyIdToken(String idToken) throws FirebaseAuthException {
+        VerifiedToken cached = verifiedTokens.getIfPresent(idToken);
+        if (cached != null) {
+            return cached;
+        }
         try {
             log.debug("Verifying Firebase ID token");
-            FirebaseToken decodedToken = firebaseAuth.verifyIdToken(idToken);
+            VerifiedToken decodedToken = localVerifier.verify(idToken);
+            if (decodedToken == null) {
+                log.debug("No local signing key for token; verifying with Firebase Admin SDK");
+                decodedToken = toVerifiedToken(firebaseAuth.verifyIdToken(idToken));
+            }
             log.debug("Firebase ID token verified successfully for UID: {}", decodedToken.getUid());
+            verifiedTokens.put(idToken, decodedToken);
             return decodedToken;
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.error("Failed to verify Firebase ID token: {}", e.getMessage());
             throw e;
         }
@@ -39,7 +60,7 @@ public class FirebaseService {
      * @throws FirebaseAuthException if token is invalid
      */
     public String getUidFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
+        VerifiedToken decodedToken = verifyIdToken(idToken);
         return decodedToken.getUid();
     }
     
@@ -50,7 +71,7 @@ public class FirebaseService {
      * @throws FirebaseAuthException if token is invalid
      */
     public String getEmailFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
+        VerifiedToken decodedToken = verifyIdToken(idToken);
         return decodedToken.getEmail();
     }
     
@@ -61,7 +82,7 @@ public class FirebaseService {
      * @throws FirebaseAuthException if token is invalid
      */
     public String getNameFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
+        VerifiedToken decodedToken = verifyIdToken(idToken);
         return decodedToken.getName();
     }
     
@@ -72,7 +93,7 @@ public class FirebaseService {
      * @throws FirebaseAuthException if token is invalid
      */
     public String getPictureFromToken(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = verifyIdToken(idToken);
+        VerifiedToken decodedToken = verifyIdToken(idToken);
         return decodedToken.getPicture();
     }
     
@@ -85,9 +106,15 @@ public class FirebaseService {
         try {
             verifyIdToken(idToken);
             return true;
-        } catch (FirebaseAuthException e) {
+        } catch (FirebaseAuthException | InvalidTokenException e) {
             log.debug("Invalid Firebase token: {}", e.getMessage());
             return false;
         }
     }
-}
+    
+    private static VerifiedToken toVerifiedToken(FirebaseToken token) {
+        Object exp = token.getClaims().get("exp");
+        long expiresAt = exp instanceof Number seconds ? seconds.longValue() : 0;
+        return new VerifiedToken(token.getUid(), token.getEmail(), token.getName(), token.getPicture(), expiresAt);
+    }
+}
\ No newline at end of file
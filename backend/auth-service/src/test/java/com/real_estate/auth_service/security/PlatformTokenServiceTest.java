@@ -0,0 +1,75 @@
+package com.real_estate.auth_service.security;
+
+import com.real_estate.common.security.InvalidTokenException;
+import com.real_estate.common.security.PlatformToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlatformTokenServiceTest {
+
+    private static final String KEYS = "k1:" + secret('a') + ",k2:" + secret('b');
+
+    private final PlatformTokenService tokens = new PlatformTokenService(KEYS, "k2", Duration.ofMinutes(15), Duration.ofDays(7));
+
+    @Test
+    void issuedTokenVerifiesWithItsClaims() {
+        String token = tokens.issue("user-1", "user@example.com", "SELLER", 4, PlatformTokenService.REFRESH);
+
+        PlatformToken verified = tokens.verify(token, PlatformTokenService.REFRESH);
+        assertThat(verified.getUid()).isEqualTo("user-1");
+        assertThat(verified.getEmail()).isEqualTo("user@example.com");
+        assertThat(verified.getRole()).isEqualTo("SELLER");
+        assertThat(verified.getGeneration()).isEqualTo(4);
+        assertThatThrownBy(() -> tokens.verify(token, PlatformTokenService.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void tokensOfTheOldSigningKeyStayValidAfterRotation() {
+        PlatformTokenService before = new PlatformTokenService(KEYS, "k1", Duration.ofMinutes(15), Duration.ofDays(7));
+
+        String token = before.issue("user-1", null, "BUYER", 0, PlatformTokenService.ACCESS);
+
+        assertThat(tokens.verify(token, PlatformTokenService.ACCESS).getUid()).isEqualTo("user-1");
+    }
+
+    @Test
+    void tamperedRoleIsRejected() {
+        String[] parts = tokens.issue("user-1", "user@example.com", "BUYER", 0, PlatformTokenService.ACCESS).split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"BUYER\"", "\"ADMIN\"");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertThatThrownBy(() -> tokens.verify(forged, PlatformTokenService.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        PlatformTokenService instant = new PlatformTokenService(KEYS, "k2", Duration.ZERO, Duration.ZERO);
+
+        String token = instant.issue("user-1", "user@example.com", "BUYER", 0, PlatformTokenService.ACCESS);
+
+        assertThatThrownBy(() -> instant.verify(token, PlatformTokenService.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shortKeyFailsStartup() {
+        String shortKey = Base64.getEncoder().encodeToString("sixteen-bytes-ok".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> new PlatformTokenService("k1:" + shortKey, "k1", Duration.ofMinutes(15), Duration.ofDays(7)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes(StandardCharsets.US_ASCII));
+    }
+}
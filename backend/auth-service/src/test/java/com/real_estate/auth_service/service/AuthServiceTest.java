@@ -0,0 +1,197 @@
+package com.real_estate.auth_service.service;
+
+import com.real_estate.auth_service.cache.UserProfileCache;
+import com.real_estate.auth_service.dto.LoginRequest;
+import com.real_estate.auth_service.dto.RefreshRequest;
+import com.real_estate.auth_service.dto.RegisterRequest;
+import com.real_estate.auth_service.dto.UserResponse;
+import com.real_estate.auth_service.entity.User;
+import com.real_estate.auth_service.repository.UserRepository;
+import com.real_estate.auth_service.security.PlatformTokenService;
+import com.real_estate.common.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String UID = "firebase-uid";
+    private static final String ID_TOKEN = "id-token";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FirebaseService firebaseService;
+
+    private final UserProfileCache profileCache = new UserProfileCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // No signing key: only Firebase ID tokens are accepted
+        PlatformTokenService platformTokens = new PlatformTokenService("", "", Duration.ofMinutes(15), Duration.ofDays(7));
+        authService = new AuthService(userRepository, firebaseService, profileCache, platformTokens);
+        lenient().when(firebaseService.getUidFromToken(ID_TOKEN)).thenReturn(UID);
+        profileCache.put(profile(User.Status.ACTIVE), 0);
+    }
+
+    @Test
+    void activeUserIsServedFromTheCache() {
+        assertThat(authService.getProfile(ID_TOKEN).getEmail()).isEqualTo("user@example.com");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void suspendedUserIsRefusedOnceEvicted() {
+        // As the change stream does for a suspension made on another replica
+        profileCache.invalidate(UID);
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.of(user(User.Status.SUSPENDED)));
+        LoginRequest request = new LoginRequest();
+        request.setIdToken(ID_TOKEN);
+
+        assertThatThrownBy(() -> authService.login(request)).hasMessageContaining("not active");
+        assertThat(profileCache.getIfPresent(UID)).isNull();
+    }
+
+    @Test
+    void deletedUserIsNotFoundOnceEvicted() {
+        profileCache.invalidate(UID);
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> authService.getProfile(ID_TOKEN)).hasMessageContaining("User not found");
+        assertThat(profileCache.getIfPresent(UID)).isNull();
+    }
+
+    @Test
+    void refreshIsRefusedOnceTheGenerationMoved() {
+        AuthService withKeys = new AuthService(userRepository, firebaseService, profileCache, keyedTokens());
+        // The cache still holds generation 0; refresh reads the account from Mongo
+        User user = user(User.Status.ACTIVE);
+        user.setTokenGeneration(3);
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.of(user));
+
+        String current = keyedTokens().issue(UID, "user@example.com", "BUYER", 3, PlatformTokenService.REFRESH);
+        assertThat(withKeys.refresh(refresh(current)).getRefreshToken()).isNotBlank();
+
+        String revoked = keyedTokens().issue(UID, "user@example.com", "BUYER", 2, PlatformTokenService.REFRESH);
+        assertThatThrownBy(() -> withKeys.refresh(refresh(revoked))).hasMessageContaining("revoked");
+    }
+
+    @Test
+    void suspendedUserCannotRefresh() {
+        AuthService withKeys = new AuthService(userRepository, firebaseService, profileCache, keyedTokens());
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.of(user(User.Status.SUSPENDED)));
+
+        String token = keyedTokens().issue(UID, "user@example.com", "BUYER", 0, PlatformTokenService.REFRESH);
+
+        assertThatThrownBy(() -> withKeys.refresh(refresh(token))).hasMessageContaining("not active");
+        assertThat(profileCache.getIfPresent(UID)).isNull();
+    }
+
+    @Test
+    void adminRoleIsRefusedAtRegistration() {
+        RegisterRequest request = new RegisterRequest();
+        request.setIdToken(ID_TOKEN);
+        request.setRole(User.Role.ADMIN);
+
+        assertThatThrownBy(() -> authService.register(request)).hasMessageContaining("ADMIN role");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void registrationWithoutARoleIsABuyer() throws Exception {
+        when(firebaseService.verifyIdToken(ID_TOKEN)).thenReturn(
+                new VerifiedToken(UID, "new@example.com", "New User", null, Long.MAX_VALUE));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        RegisterRequest request = new RegisterRequest();
+        request.setIdToken(ID_TOKEN);
+
+        assertThat(authService.register(request).getUser().getRole()).isEqualTo(User.Role.BUYER);
+    }
+
+    @Test
+    void logoutBumpsTheTokenGeneration() {
+        authService.logout(ID_TOKEN);
+
+        verify(userRepository).findAndIncrementTokenGenerationByFirebaseUid(UID);
+        assertThat(profileCache.getIfPresent(UID)).isNull();
+    }
+
+    @Test
+    void onlyAnActiveAdminChangesTheStatus() {
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.of(user(User.Status.ACTIVE)));
+
+        assertThatThrownBy(() -> authService.changeStatus(ID_TOKEN, "other-uid", User.Status.SUSPENDED))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(userRepository, never()).findAndSetStatusByFirebaseUid(any(), any(), any());
+    }
+
+    @Test
+    void suspensionRevokesAndEvictsTheUser() {
+        User admin = user(User.Status.ACTIVE);
+        admin.setRole(User.Role.ADMIN);
+        User target = user(User.Status.SUSPENDED);
+        target.setFirebaseUid("other-uid");
+        profileCache.put(UserResponse.builder().firebaseUid("other-uid").status(User.Status.ACTIVE).build(), 0);
+        when(userRepository.findByFirebaseUid(UID)).thenReturn(Optional.of(admin));
+        when(userRepository.findAndSetStatusByFirebaseUid(eq("other-uid"), eq(User.Status.SUSPENDED), any())).thenReturn(1L);
+        when(userRepository.findByFirebaseUid("other-uid")).thenReturn(Optional.of(target));
+
+        assertThat(authService.changeStatus(ID_TOKEN, "other-uid", User.Status.SUSPENDED).getStatus())
+                .isEqualTo(User.Status.SUSPENDED);
+        assertThat(profileCache.getIfPresent("other-uid")).isNull();
+    }
+
+    private static PlatformTokenService keyedTokens() {
+        String secret = Base64.getEncoder().encodeToString("a".repeat(32).getBytes(StandardCharsets.US_ASCII));
+        return new PlatformTokenService("k1:" + secret, "k1", Duration.ofMinutes(15), Duration.ofDays(7));
+    }
+
+    private static RefreshRequest refresh(String token) {
+        RefreshRequest request = new RefreshRequest();
+        request.setRefreshToken(token);
+        return request;
+    }
+
+    private static User user(User.Status status) {
+        return User.builder()
+                .id("id-1")
+                .firebaseUid(UID)
+                .email("user@example.com")
+                .role(User.Role.BUYER)
+                .status(status)
+                .build();
+    }
+
+    private static UserResponse profile(User.Status status) {
+        return UserResponse.builder()
+                .id("id-1")
+                .firebaseUid(UID)
+                .email("user@example.com")
+                .role(User.Role.BUYER)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.real_estate.common.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of the public keys Firebase signs ID tokens with. Keys are fetched
+ * at startup and refreshed in the background well before the max-age the key
+ * endpoint advertises, so verification never waits on the network. If a refresh
+ * fails the current keys are kept and the fetch is retried; keys are only dropped
+ * once they are older than max-stale past their expiry.
+ * <p>
+ * Not a Spring bean by itself: services declare it with start and stop as the
+ * init and destroy methods.
+ */
+public class FirebaseSigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(FirebaseSigningKeys.class);
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final URI keysUrl;
+    private final Duration maxStale;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "firebase-key-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    // Replaced as a whole on refresh, so readers never see a partial key set
+    private volatile KeySet current = new KeySet(Map.of(), 0);
+    private volatile long lastOnDemandRefresh;
+
+    public FirebaseSigningKeys(String keysUrl, Duration maxStale) {
+        this.keysUrl = URI.create(keysUrl);
+        this.maxStale = maxStale;
+    }
+
+    public void start() {
+        refresher.execute(this::refreshAndReschedule);
+    }
+
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Key for the given kid, or null if it is unknown or the key set is too stale to
+     * trust. An unknown kid usually means Firebase rotated keys, so it also queues
+     * a refresh (at most once per retry delay).
+     */
+    public PublicKey get(String kid) {
+        KeySet keys = current;
+        if (System.currentTimeMillis() > keys.expiresAtMillis + maxStale.toMillis()) {
+            return null;
+        }
+        PublicKey key = keys.keys.get(kid);
+        if (key == null) {
+            long now = System.currentTimeMillis();
+            if (now - lastOnDemandRefresh > RETRY_DELAY.toMillis() && refreshQueued.compareAndSet(false, true)) {
+                lastOnDemandRefresh = now;
+                refresher.execute(() -> {
+                    refreshQueued.set(false);
+                    refresh();
+                });
+            }
+        }
+        return key;
+    }
+
+    private void refreshAndReschedule() {
+        Duration next = refresh() ? nextRefreshDelay() : RETRY_DELAY;
+        refresher.schedule(this::refreshAndReschedule, next.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // Refresh at 80% of the advertised lifetime, so there is time to retry before expiry
+    private Duration nextRefreshDelay() {
+        long remaining = current.expiresAtMillis - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(RETRY_DELAY.toMillis(), remaining * 4 / 5));
+    }
+
+    private boolean refresh() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(keysUrl)
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                log.warn("Fetching Firebase signing keys returned HTTP {}; keeping current keys", response.statusCode());
+                return false;
+            }
+            long maxAgeSeconds = response.headers().firstValue("Cache-Control")
+                    .map(MAX_AGE::matcher)
+                    .filter(Matcher::find)
+                    .map(m -> Long.parseLong(m.group(1)))
+                    .orElse(3600L);
+            Map<String, PublicKey> keys = parse(response.body());
+            if (keys.isEmpty()) {
+                log.warn("Firebase key endpoint returned no keys; keeping current keys");
+                return false;
+            }
+            current = new KeySet(keys, System.currentTimeMillis() + maxAgeSeconds * 1000);
+            log.debug("Loaded {} Firebase signing keys, valid for {}s", keys.size(), maxAgeSeconds);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Could not fetch Firebase signing keys; keeping current keys: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // Body is a JSON object of kid -> PEM encoded X.509 certificate
+    private static Map<String, PublicKey> parse(byte[] body) throws Exception {
+        CertificateFactory certificates = CertificateFactory.getInstance("X.509");
+        Map<String, PublicKey> keys = new HashMap<>();
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return keys;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String kid = parser.currentName();
+                parser.nextToken();
+                byte[] pem = parser.getText().getBytes(StandardCharsets.US_ASCII);
+                keys.put(kid, certificates.generateCertificate(new ByteArrayInputStream(pem)).getPublicKey());
+            }
+        }
+        return keys;
+    }
+
+    private static final class KeySet {
+        final Map<String, PublicKey> keys;
+        final long expiresAtMillis;
+
+        KeySet(Map<String, PublicKey> keys, long expiresAtMillis) {
+            this.keys = keys;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
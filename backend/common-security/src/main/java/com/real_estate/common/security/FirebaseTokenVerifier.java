@@ -0,0 +1,178 @@
+package com.real_estate.common.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Verifies Firebase ID tokens locally against {@link FirebaseSigningKeys}: RS256
+ * signature, then the claims Firebase documents (exp, iat, auth_time, aud, iss,
+ * sub). Header and payload are read with a streaming parser that keeps only the
+ * fields needed, and each thread reuses one Signature instance.
+ * <p>
+ * Returns null when it cannot decide because no usable key is available (key
+ * source unreachable, or an unknown kid right after rotation); callers then fall
+ * back to the Firebase Admin SDK (auth-service) or forward the request without
+ * identity (api-gateway). It never accepts a token it could not check.
+ */
+public class FirebaseTokenVerifier {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final ThreadLocal<Signature> RS256 = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance("SHA256withRSA");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final FirebaseSigningKeys signingKeys;
+    private final String projectId;
+    private final String issuer;
+    private final long clockSkewSeconds;
+
+    public FirebaseTokenVerifier(FirebaseSigningKeys signingKeys, String projectId, Duration clockSkew) {
+        this.signingKeys = signingKeys;
+        this.projectId = projectId;
+        this.issuer = "https://securetoken.google.com/" + projectId;
+        this.clockSkewSeconds = clockSkew.toSeconds();
+    }
+
+    public VerifiedToken verify(String idToken) {
+        int firstDot = idToken.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : idToken.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || idToken.indexOf('.', secondDot + 1) >= 0) {
+            throw new InvalidTokenException("Malformed token");
+        }
+
+        Header header = parseHeader(decode(idToken, 0, firstDot));
+        if (!"RS256".equals(header.alg) || header.kid == null) {
+            throw new InvalidTokenException("Unsupported token algorithm");
+        }
+        PublicKey key = signingKeys.get(header.kid);
+        if (key == null) {
+            return null;
+        }
+        if (!signatureMatches(key, idToken, secondDot)) {
+            throw new InvalidTokenException("Invalid token signature");
+        }
+
+        Claims claims = parseClaims(decode(idToken, firstDot + 1, secondDot));
+        long now = System.currentTimeMillis() / 1000;
+        if (claims.exp <= now - clockSkewSeconds) {
+            throw new InvalidTokenException("Token has expired");
+        }
+        if (claims.iat > now + clockSkewSeconds || claims.authTime > now + clockSkewSeconds) {
+            throw new InvalidTokenException("Token was issued in the future");
+        }
+        if (!projectId.equals(claims.aud) || !issuer.equals(claims.iss)) {
+            throw new InvalidTokenException("Token was issued for another project");
+        }
+        if (claims.sub == null || claims.sub.isEmpty() || claims.sub.length() > 128) {
+            throw new InvalidTokenException("Token has an invalid subject");
+        }
+        return new VerifiedToken(claims.sub, claims.email, claims.name, claims.picture, claims.exp);
+    }
+
+    private static boolean signatureMatches(PublicKey key, String idToken, int secondDot) {
+        try {
+            Signature signature = RS256.get();
+            signature.initVerify(key);
+            // Tokens are base64url, so ASCII; the signed part is everything before the second dot
+            signature.update(idToken.getBytes(StandardCharsets.US_ASCII), 0, secondDot);
+            return signature.verify(decode(idToken, secondDot + 1, idToken.length()));
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static byte[] decode(String token, int from, int to) {
+        try {
+            return Base64.getUrlDecoder().decode(token.substring(from, to));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private static Header parseHeader(byte[] json) {
+        Header header = new Header();
+        try (JsonParser parser = JSON.createParser(json)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "alg" -> header.alg = parser.getValueAsString();
+                    case "kid" -> header.kid = parser.getValueAsString();
+                    default -> skip(parser, value);
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        return header;
+    }
+
+    private static Claims parseClaims(byte[] json) {
+        Claims claims = new Claims();
+        try (JsonParser parser = JSON.createParser(json)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "exp" -> claims.exp = parser.getValueAsLong();
+                    case "iat" -> claims.iat = parser.getValueAsLong();
+                    case "auth_time" -> claims.authTime = parser.getValueAsLong();
+                    case "aud" -> claims.aud = parser.getValueAsString();
+                    case "iss" -> claims.iss = parser.getValueAsString();
+                    case "sub" -> claims.sub = parser.getValueAsString();
+                    case "email" -> claims.email = parser.getValueAsString();
+                    case "name" -> claims.name = parser.getValueAsString();
+                    case "picture" -> claims.picture = parser.getValueAsString();
+                    default -> skip(parser, value);
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        return claims;
+    }
+
+    private static void expectObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private static void skip(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+        }
+    }
+
+    private static final class Header {
+        String alg;
+        String kid;
+    }
+
+    private static final class Claims {
+        long exp;
+        long iat;
+        long authTime;
+        String aud;
+        String iss;
+        String sub;
+        String email;
+        String name;
+        String picture;
+    }
+}
@@ -0,0 +1,44 @@
+package com.real_estate.common.security;
+
+import java.security.Principal;
+
+/**
+ * Caller identity as verified by the api-gateway and read back from the signed
+ * identity headers. As a {@link Principal} its name is the uid.
+ */
+public class Identity implements Principal {
+
+    private final String uid;
+    private final String email;
+    private final String role;
+
+    public Identity(String uid, String email, String role) {
+        this.uid = uid;
+        this.email = email;
+        this.role = role;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    // Empty when the token carried no email
+    public String getEmail() {
+        return email;
+    }
+
+    // Platform role (BUYER, SELLER, ADMIN); empty when the caller used a Firebase ID token
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getName() {
+        return uid;
+    }
+
+    @Override
+    public String toString() {
+        return uid;
+    }
+}
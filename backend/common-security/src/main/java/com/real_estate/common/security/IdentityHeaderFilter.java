@@ -0,0 +1,104 @@
+package com.real_estate.common.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Trusts the identity the api-gateway already verified (servlet services). A
+ * correctly signed identity becomes the request's user principal with its role,
+ * and also the authenticated Spring Security principal (the uid, with authority
+ * ROLE_&lt;role&gt;) when Spring Security is on the classpath. Requests without identity headers stay anonymous; unsigned,
+ * badly signed or stale identity headers are rejected with 401, so a client
+ * cannot pose as another user by sending X-User-* itself.
+ */
+public class IdentityHeaderFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentityHeaderFilter.class);
+    private static final boolean SPRING_SECURITY = ClassUtils.isPresent(
+            "org.springframework.security.core.context.SecurityContextHolder", IdentityHeaderFilter.class.getClassLoader());
+
+    private final IdentityHeaders identityHeaders;
+    private final long maxAgeSeconds;
+
+    public IdentityHeaderFilter(String signingKey, Duration maxAge) {
+        this.identityHeaders = signingKey.isBlank() ? null : new IdentityHeaders(signingKey);
+        this.maxAgeSeconds = maxAge.toSeconds();
+        if (identityHeaders == null) {
+            log.warn("identity.signing-key is not set; gateway identity headers will be ignored");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (identityHeaders == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Identity identity;
+        try {
+            identity = identityHeaders.read(request::getHeader, Collections.list(request.getHeaderNames()), maxAgeSeconds);
+        } catch (InvalidTokenException e) {
+            log.warn("Rejected request with invalid identity headers for path {}: {}", request.getRequestURI(), e.getMessage());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Invalid identity headers\"}");
+            return;
+        }
+        if (identity == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (SPRING_SECURITY) {
+            SpringSecurity.authenticate(identity);
+        }
+        filterChain.doFilter(new HttpServletRequestWrapper(request) {
+            @Override
+            public Principal getUserPrincipal() {
+                return identity;
+            }
+
+            @Override
+            public String getRemoteUser() {
+                return identity.getUid();
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return !identity.getRole().isEmpty() && identity.getRole().equals(role);
+            }
+        }, response);
+    }
+
+    // Only loaded when Spring Security is present
+    private static final class SpringSecurity {
+
+        static void authenticate(Identity identity) {
+            List<SimpleGrantedAuthority> authorities = identity.getRole().isEmpty()
+                    ? List.of()
+                    : List.of(new SimpleGrantedAuthority("ROLE_" + identity.getRole()));
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(identity.getUid(), null, authorities);
+            authentication.setDetails(identity.getEmail());
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+    }
+}
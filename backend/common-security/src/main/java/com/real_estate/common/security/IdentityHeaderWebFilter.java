@@ -0,0 +1,67 @@
+package com.real_estate.common.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Reactive counterpart of {@link IdentityHeaderFilter} for services running on
+ * WebFlux: a correctly signed identity becomes the exchange principal, requests
+ * without identity headers stay anonymous, and unsigned, badly signed or stale
+ * identity headers are rejected with 401.
+ */
+public class IdentityHeaderWebFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentityHeaderWebFilter.class);
+
+    private final IdentityHeaders identityHeaders;
+    private final long maxAgeSeconds;
+
+    public IdentityHeaderWebFilter(String signingKey, Duration maxAge) {
+        this.identityHeaders = signingKey.isBlank() ? null : new IdentityHeaders(signingKey);
+        this.maxAgeSeconds = maxAge.toSeconds();
+        if (identityHeaders == null) {
+            log.warn("identity.signing-key is not set; gateway identity headers will be ignored");
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (identityHeaders == null) {
+            return chain.filter(exchange);
+        }
+
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        Identity identity;
+        try {
+            identity = identityHeaders.read(headers::getFirst, headers.keySet(), maxAgeSeconds);
+        } catch (InvalidTokenException e) {
+            log.warn("Rejected request with invalid identity headers for path {}: {}",
+                    exchange.getRequest().getPath(), e.getMessage());
+            return unauthorized(exchange.getResponse());
+        }
+        if (identity == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().principal(Mono.just(identity)).build());
+    }
+
+    private static Mono<Void> unauthorized(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"error\":\"Invalid identity headers\"}".getBytes(StandardCharsets.UTF_8);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
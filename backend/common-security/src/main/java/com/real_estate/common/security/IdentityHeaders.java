@@ -0,0 +1,108 @@
+package com.real_estate.common.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * The identity headers the api-gateway forwards to the services. They are signed
+ * with HMAC-SHA256 over "uid\nemail\nrole\nissuedAt" with a key shared between the
+ * gateway and the services, so a service trusts the caller after one HMAC instead
+ * of verifying the token again. Every X-User-* and X-Identity-* header belongs to
+ * this scheme: the gateway strips them from client requests, and a service refuses
+ * them unless the signature is valid.
+ */
+public class IdentityHeaders {
+
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_EMAIL = "X-User-Email";
+    public static final String USER_ROLE = "X-User-Role";
+    public static final String ISSUED_AT = "X-Identity-Issued-At";
+    public static final String SIGNATURE = "X-Identity-Signature";
+    public static final List<String> ALL = List.of(USER_ID, USER_EMAIL, USER_ROLE, ISSUED_AT, SIGNATURE);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityHeaders(String signingKey) {
+        if (signingKey == null || signingKey.isBlank()) {
+            throw new IllegalArgumentException("identity.signing-key is not set");
+        }
+        SecretKeySpec key = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // Header names are case-insensitive
+    public static boolean isIdentityHeader(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.startsWith("x-user-") || lower.startsWith("x-identity-");
+    }
+
+    // Missing email and role are signed as empty strings
+    public String sign(String uid, String email, String role, long issuedAt) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(uid, email, role, Long.toString(issuedAt)));
+    }
+
+    /**
+     * Identity carried by a request, or null if it has no identity headers at all.
+     *
+     * @param header     value of a header by name, null when absent
+     * @param names      names of all headers on the request
+     * @param maxAgeSeconds how far issuedAt may be from now either way
+     * @throws InvalidTokenException if identity headers are present but not signed
+     *                               by the gateway, or the signature is too old
+     */
+    public Identity read(Function<String, String> header, Iterable<String> names, long maxAgeSeconds) {
+        String signature = header.apply(SIGNATURE);
+        if (signature == null) {
+            for (String name : names) {
+                if (isIdentityHeader(name)) {
+                    throw new InvalidTokenException("Unsigned identity headers");
+                }
+            }
+            return null;
+        }
+        String uid = header.apply(USER_ID);
+        String email = header.apply(USER_EMAIL);
+        String role = header.apply(USER_ROLE);
+        String issuedAt = header.apply(ISSUED_AT);
+        if (uid == null || uid.isEmpty() || issuedAt == null) {
+            throw new InvalidTokenException("Incomplete identity headers");
+        }
+        email = email == null ? "" : email;
+        role = role == null ? "" : role;
+        try {
+            long age = System.currentTimeMillis() / 1000 - Long.parseLong(issuedAt);
+            if (Math.abs(age) > maxAgeSeconds) {
+                throw new InvalidTokenException("Identity headers have expired");
+            }
+            if (!MessageDigest.isEqual(mac(uid, email, role, issuedAt), Base64.getUrlDecoder().decode(signature))) {
+                throw new InvalidTokenException("Invalid identity signature");
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException included
+            throw new InvalidTokenException("Malformed identity headers");
+        }
+        return new Identity(uid, email, role);
+    }
+
+    private byte[] mac(String uid, String email, String role, String issuedAt) {
+        String signed = uid + "\n" + (email == null ? "" : email) + "\n" + (role == null ? "" : role) + "\n" + issuedAt;
+        return macs.get().doFinal(signed.getBytes(StandardCharsets.UTF_8));
+    }
+}
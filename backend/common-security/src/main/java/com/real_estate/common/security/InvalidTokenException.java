@@ -0,0 +1,12 @@
+package com.real_estate.common.security;
+
+/**
+ * Thrown when a token was checked locally and is definitely not acceptable:
+ * malformed, wrongly signed, expired or issued for another project.
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package com.real_estate.common.security;
+
+/**
+ * Claims of a verified platform token issued by auth-service.
+ */
+public class PlatformToken {
+
+    private final String uid;
+    private final String email;
+    private final String role;
+    // "access" or "refresh"
+    private final String type;
+    // gen claim: the user's token generation at issue time; bumping it revokes the token
+    private final long generation;
+    // exp claim, epoch seconds
+    private final long expiresAt;
+
+    public PlatformToken(String uid, String email, String role, String type, long generation, long expiresAt) {
+        this.uid = uid;
+        this.email = email;
+        this.role = role;
+        this.type = type;
+        this.generation = generation;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public VerifiedToken toVerifiedToken() {
+        return new VerifiedToken(uid, email, null, null, role, expiresAt);
+    }
+}
@@ -0,0 +1,146 @@
+package com.real_estate.common.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Verifies the platform's own short-lived tokens issued by auth-service: compact
+ * HS256 JWTs whose header names one of the configured keys
+ * (auth.token.keys=kid:base64secret,...). The header of a token is fixed per key,
+ * so verification matches the header segment against the precomputed headers
+ * instead of parsing it, then checks one HMAC and streams the payload; no network
+ * and no RSA. Keys shorter than 32 bytes are refused at startup, HMAC-SHA256 keys
+ * must be at least as long as its output.
+ */
+public class PlatformTokenVerifier {
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+    protected static final String ISSUER = "real-estate-platform";
+    protected static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    protected static final JsonFactory JSON = new JsonFactory();
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final ThreadLocal<Mac> MACS = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // Encoded header segment -> key it names
+    private final Map<String, SecretKeySpec> keysByHeader = new HashMap<>();
+
+    public PlatformTokenVerifier(String keys) {
+        for (String entry : keys.split(",")) {
+            int sep = entry.indexOf(':');
+            if (sep <= 0) {
+                continue;
+            }
+            String kid = entry.substring(0, sep).trim();
+            byte[] secret = Base64.getDecoder().decode(entry.substring(sep + 1).trim());
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("Platform token key " + kid + " has " + secret.length
+                        + " bytes; at least " + MIN_KEY_BYTES + " are required");
+            }
+            keysByHeader.put(headerFor(kid), new SecretKeySpec(secret, ALGORITHM));
+        }
+    }
+
+    // True if the token names one of the platform keys; anything else is treated as a Firebase ID token
+    public boolean isPlatformToken(String token) {
+        int firstDot = token.indexOf('.');
+        return firstDot > 0 && keysByHeader.containsKey(token.substring(0, firstDot));
+    }
+
+    public PlatformToken verify(String token, String expectedType) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        String header = token.substring(0, firstDot);
+        if (!keysByHeader.containsKey(header)) {
+            throw new InvalidTokenException("Unknown token key");
+        }
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(secondDot + 1));
+            payload = Base64.getUrlDecoder().decode(token.substring(firstDot + 1, secondDot));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(sign(header, token, secondDot), signature)) {
+            throw new InvalidTokenException("Invalid token signature");
+        }
+
+        String sub = null, email = null, role = null, typ = null, iss = null;
+        long gen = 0, exp = 0;
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidTokenException("Malformed token");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "sub" -> sub = parser.getValueAsString();
+                    case "email" -> email = parser.getValueAsString();
+                    case "role" -> role = parser.getValueAsString();
+                    case "typ" -> typ = parser.getValueAsString();
+                    case "iss" -> iss = parser.getValueAsString();
+                    case "gen" -> gen = parser.getValueAsLong();
+                    case "exp" -> exp = parser.getValueAsLong();
+                    default -> {
+                        if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        if (!ISSUER.equals(iss) || sub == null || !expectedType.equals(typ)) {
+            throw new InvalidTokenException("Token is not a platform " + expectedType + " token");
+        }
+        if (exp <= System.currentTimeMillis() / 1000) {
+            throw new InvalidTokenException("Token has expired");
+        }
+        return new PlatformToken(sub, email, role, typ, gen, exp);
+    }
+
+    protected boolean hasKey(String header) {
+        return keysByHeader.containsKey(header);
+    }
+
+    // HMAC with the key the header names, over the first length characters of the (ASCII) token
+    protected byte[] sign(String header, String token, int length) {
+        try {
+            Mac mac = MACS.get();
+            mac.init(keysByHeader.get(header));
+            mac.update(token.getBytes(StandardCharsets.US_ASCII), 0, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected static String headerFor(String kid) {
+        String header = "{\"alg\":\"HS256\",\"typ\":\"JWT\",\"kid\":\"" + kid + "\"}";
+        return BASE64URL.encodeToString(header.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package com.real_estate.common.security;
+
+/**
+ * The claims of a Firebase ID token whose signature and claims have been checked,
+ * either locally by {@link FirebaseTokenVerifier} or by the Firebase Admin SDK, or
+ * of a platform access token. Only platform tokens carry a role.
+ */
+public class VerifiedToken {
+
+    private final String uid;
+    private final String email;
+    private final String name;
+    private final String picture;
+    private final String role;
+    // exp claim, epoch seconds
+    private final long expiresAt;
+
+    public VerifiedToken(String uid, String email, String name, String picture, long expiresAt) {
+        this(uid, email, name, picture, null, expiresAt);
+    }
+
+    public VerifiedToken(String uid, String email, String name, String picture, String role, long expiresAt) {
+        this.uid = uid;
+        this.email = email;
+        this.name = name;
+        this.picture = picture;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPicture() {
+        return picture;
+    }
+
+    // Null for Firebase ID tokens
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,317 @@
+package com.real_estate.common.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the verifier against keys served by a local stand-in for the Firebase key
+ * endpoint, with tokens signed by generated RSA keys.
+ */
+class FirebaseTokenVerifierTest {
+
+    private static final String PROJECT = "demo-project";
+    private static final String ISSUER = "https://securetoken.google.com/" + PROJECT;
+
+    private static final KeyPair KEY_1 = rsaKeyPair();
+    private static final KeyPair KEY_2 = rsaKeyPair();
+    private static final KeyPair OTHER = rsaKeyPair();
+
+    private final AtomicReference<Map<String, KeyPair>> served = new AtomicReference<>(Map.of("k1", KEY_1));
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private HttpServer server;
+    private FirebaseSigningKeys signingKeys;
+    private FirebaseTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/keys", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = keysJson(served.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        signingKeys = new FirebaseSigningKeys("http://127.0.0.1:" + server.getAddress().getPort() + "/keys", Duration.ofHours(6));
+        signingKeys.start();
+        verifier = new FirebaseTokenVerifier(signingKeys, PROJECT, Duration.ofSeconds(30));
+        awaitVerified(token("k1", KEY_1, claims()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        signingKeys.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void validTokenIsVerified() {
+        VerifiedToken verified = verifier.verify(token("k1", KEY_1, claims()));
+
+        assertThat(verified.getUid()).isEqualTo("user-1");
+        assertThat(verified.getEmail()).isEqualTo("user@example.com");
+        assertThat(verified.getExpiresAt()).isGreaterThan(now());
+    }
+
+    @Test
+    void otherAlgorithmsAreRejected() {
+        String unsigned = encode("{\"alg\":\"none\",\"kid\":\"k1\"}") + "." + encode(json(claims())) + ".";
+        assertThatThrownBy(() -> verifier.verify(unsigned)).isInstanceOf(InvalidTokenException.class);
+
+        String hmac = encode("{\"alg\":\"HS256\",\"kid\":\"k1\"}") + "." + encode(json(claims())) + "." + encode("sig");
+        assertThatThrownBy(() -> verifier.verify(hmac)).isInstanceOf(InvalidTokenException.class);
+
+        String noKid = token(null, KEY_1, claims());
+        assertThatThrownBy(() -> verifier.verify(noKid)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void unknownKidIsUndecidedAndRefreshesTheKeys() {
+        served.set(Map.of("k1", KEY_1, "k2", KEY_2));
+        String rotated = token("k2", KEY_2, claims());
+        int before = fetches.get();
+
+        assertThat(verifier.verify(rotated)).isNull();
+
+        VerifiedToken verified = awaitVerified(rotated);
+        assertThat(verified.getUid()).isEqualTo("user-1");
+        assertThat(fetches.get()).isGreaterThan(before);
+    }
+
+    @Test
+    void badSignatureIsRejected() {
+        String forged = token("k1", OTHER, claims());
+        assertThatThrownBy(() -> verifier.verify(forged))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("signature");
+
+        // Payload swapped after signing
+        String valid = token("k1", KEY_1, claims());
+        Map<String, Object> admin = claims();
+        admin.put("sub", "admin");
+        String[] parts = valid.split("\\.");
+        String tampered = parts[0] + "." + encode(json(admin)) + "." + parts[2];
+        assertThatThrownBy(() -> verifier.verify(tampered)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        Map<String, Object> claims = claims();
+        claims.put("iat", now() - 7200);
+        claims.put("auth_time", now() - 7200);
+        claims.put("exp", now() - 3600);
+
+        assertThatThrownBy(() -> verifier.verify(token("k1", KEY_1, claims)))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void tokenIssuedInTheFutureIsRejected() {
+        Map<String, Object> claims = claims();
+        claims.put("iat", now() + 600);
+
+        assertThatThrownBy(() -> verifier.verify(token("k1", KEY_1, claims)))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("future");
+    }
+
+    @Test
+    void tokenOfAnotherProjectIsRejected() {
+        Map<String, Object> wrongAudience = claims();
+        wrongAudience.put("aud", "other-project");
+        assertThatThrownBy(() -> verifier.verify(token("k1", KEY_1, wrongAudience)))
+                .isInstanceOf(InvalidTokenException.class);
+
+        Map<String, Object> wrongIssuer = claims();
+        wrongIssuer.put("iss", "https://securetoken.google.com/other-project");
+        assertThatThrownBy(() -> verifier.verify(token("k1", KEY_1, wrongIssuer)))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void emptySubjectIsRejected() {
+        Map<String, Object> claims = claims();
+        claims.put("sub", "");
+
+        assertThatThrownBy(() -> verifier.verify(token("k1", KEY_1, claims)))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("subject");
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatThrownBy(() -> verifier.verify("not-a-token")).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> verifier.verify("a.b.c.d")).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> verifier.verify("!!!.???.***")).isInstanceOf(InvalidTokenException.class);
+    }
+
+    // The key refresh runs in the background; wait until the token can be decided
+    private VerifiedToken awaitVerified(String token) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            VerifiedToken verified = verifier.verify(token);
+            if (verified != null) {
+                return verified;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Signing keys were not loaded in time");
+    }
+
+    private static Map<String, Object> claims() {
+        long now = now();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", ISSUER);
+        claims.put("aud", PROJECT);
+        claims.put("auth_time", now - 60);
+        claims.put("user_id", "user-1");
+        claims.put("sub", "user-1");
+        claims.put("iat", now - 60);
+        claims.put("exp", now + 3600);
+        claims.put("email", "user@example.com");
+        claims.put("firebase", Map.of("sign_in_provider", "password"));
+        return claims;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static String token(String kid, KeyPair signer, Map<String, Object> claims) {
+        String header = kid == null ? "{\"alg\":\"RS256\",\"typ\":\"JWT\"}" : "{\"alg\":\"RS256\",\"kid\":\"" + kid + "\",\"typ\":\"JWT\"}";
+        String signingInput = encode(header) + "." + encode(json(claims));
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(signer.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Flat JSON of strings, numbers and one level of nested objects, enough for these claims
+    @SuppressWarnings("unchecked")
+    private static String json(Map<String, Object> map) {
+        return map.entrySet().stream()
+                .map(e -> "\"" + e.getKey() + "\":" + (e.getValue() instanceof Map<?, ?> nested
+                        ? json((Map<String, Object>) nested)
+                        : e.getValue() instanceof String s ? "\"" + s + "\"" : String.valueOf(e.getValue())))
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String keysJson(Map<String, KeyPair> keys) {
+        return keys.entrySet().stream()
+                .map(e -> "\"" + e.getKey() + "\":\"" + pem(selfSignedCertificate(e.getValue())).replace("\n", "\\n") + "\"")
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String pem(byte[] der) {
+        return "-----BEGIN CERTIFICATE-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END CERTIFICATE-----\n";
+    }
+
+    private static KeyPair rsaKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Minimal self-signed X.509 v1 certificate (CN=test, SHA256withRSA), DER encoded
+     * by hand since no certificate builder is on the test classpath.
+     */
+    private static byte[] selfSignedCertificate(KeyPair keyPair) {
+        byte[] sha256WithRsa = der(0x30, der(0x06, new byte[]{0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x01, 0x0B}),
+                der(0x05));
+        byte[] name = der(0x30, der(0x31, der(0x30, der(0x06, new byte[]{0x55, 0x04, 0x03}),
+                der(0x0C, "test".getBytes(StandardCharsets.US_ASCII)))));
+        DateTimeFormatter utcTime = DateTimeFormatter.ofPattern("yyMMddHHmmss'Z'");
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        byte[] validity = der(0x30,
+                der(0x17, now.minusDays(1).format(utcTime).getBytes(StandardCharsets.US_ASCII)),
+                der(0x17, now.plusDays(1).format(utcTime).getBytes(StandardCharsets.US_ASCII)));
+        byte[] tbs = der(0x30, der(0x02, new byte[]{0x01}), sha256WithRsa, name, validity, name,
+                keyPair.getPublic().getEncoded());
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(keyPair.getPrivate());
+            signature.update(tbs);
+            byte[] signed = signature.sign();
+            byte[] bits = new byte[signed.length + 1];
+            System.arraycopy(signed, 0, bits, 1, signed.length);
+            return der(0x30, tbs, sha256WithRsa, der(0x03, bits));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // One DER element: tag, definite length, then the concatenated contents
+    private static byte[] der(int tag, byte[]... contents) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] content : contents) {
+            body.writeBytes(content);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(tag);
+        int length = body.size();
+        if (length < 0x80) {
+            out.write(length);
+        } else if (length < 0x100) {
+            out.write(0x81);
+            out.write(length);
+        } else {
+            out.write(0x82);
+            out.write(length >> 8);
+            out.write(length);
+        }
+        out.writeBytes(body.toByteArray());
+        return out.toByteArray();
+    }
+}
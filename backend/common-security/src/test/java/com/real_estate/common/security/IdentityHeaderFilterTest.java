@@ -0,0 +1,148 @@
+package com.real_estate.common.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentityHeaderFilterTest {
+
+    private static final String KEY = "test-identity-signing-key";
+
+    private final IdentityHeaders signer = new IdentityHeaders(KEY);
+    private final IdentityHeaderFilter filter = new IdentityHeaderFilter(KEY, Duration.ofSeconds(60));
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void signedIdentityBecomesThePrincipal() throws Exception {
+        MockHttpServletRequest request = signed("user-1", "user@example.com", "BUYER", now());
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        HttpServletRequest forwarded = (HttpServletRequest) chain.getRequest();
+        assertThat(forwarded.getUserPrincipal().getName()).isEqualTo("user-1");
+        assertThat(forwarded.isUserInRole("BUYER")).isTrue();
+        assertThat(forwarded.isUserInRole("ADMIN")).isFalse();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isEqualTo("user-1");
+        assertThat(authentication.getDetails()).isEqualTo("user@example.com");
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_BUYER");
+    }
+
+    @Test
+    void requestWithoutIdentityStaysAnonymous() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/appointments"), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() throws Exception {
+        MockHttpServletRequest request = signed("user-1", "user@example.com", "BUYER", now());
+        // Same signature, different user
+        request.removeHeader(IdentityHeaders.USER_ID);
+        request.addHeader(IdentityHeaders.USER_ID, "admin");
+
+        assertRejected(request);
+    }
+
+    @Test
+    void elevatedRoleIsRejected() throws Exception {
+        MockHttpServletRequest request = signed("user-1", "user@example.com", "BUYER", now());
+        request.removeHeader(IdentityHeaders.USER_ROLE);
+        request.addHeader(IdentityHeaders.USER_ROLE, "ADMIN");
+
+        assertRejected(request);
+    }
+
+    @Test
+    void changedEmailIsRejected() throws Exception {
+        MockHttpServletRequest request = signed("user-1", "user@example.com", "BUYER", now());
+        request.removeHeader(IdentityHeaders.USER_EMAIL);
+        request.addHeader(IdentityHeaders.USER_EMAIL, "admin@example.com");
+
+        assertRejected(request);
+    }
+
+    @Test
+    void signatureWithAnotherKeyIsRejected() throws Exception {
+        IdentityHeaderFilter otherKey = new IdentityHeaderFilter("another-signing-key", Duration.ofSeconds(60));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        otherKey.doFilter(signed("user-1", "user@example.com", "BUYER", now()), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void expiredAndFutureTimestampsAreRejected() throws Exception {
+        assertRejected(signed("user-1", "user@example.com", "BUYER", now() - 120));
+        assertRejected(signed("user-1", "user@example.com", "BUYER", now() + 120));
+    }
+
+    @Test
+    void spoofedIdentityHeadersWithoutSignatureAreRejected() throws Exception {
+        MockHttpServletRequest spoofed = new MockHttpServletRequest("GET", "/api/appointments");
+        spoofed.addHeader("x-user-id", "admin");
+        assertRejected(spoofed);
+
+        MockHttpServletRequest unknownHeader = new MockHttpServletRequest("GET", "/api/appointments");
+        unknownHeader.addHeader("X-User-Role", "ADMIN");
+        assertRejected(unknownHeader);
+    }
+
+    @Test
+    void headersAreIgnoredWithoutAKey() throws Exception {
+        IdentityHeaderFilter disabled = new IdentityHeaderFilter("", Duration.ofSeconds(60));
+        MockFilterChain chain = new MockFilterChain();
+
+        disabled.doFilter(signed("user-1", "user@example.com", "BUYER", now()), new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private void assertRejected(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private MockHttpServletRequest signed(String uid, String email, String role, long issuedAt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointments");
+        request.addHeader(IdentityHeaders.USER_ID, uid);
+        request.addHeader(IdentityHeaders.USER_EMAIL, email);
+        request.addHeader(IdentityHeaders.USER_ROLE, role);
+        request.addHeader(IdentityHeaders.ISSUED_AT, Long.toString(issuedAt));
+        request.addHeader(IdentityHeaders.SIGNATURE, signer.sign(uid, email, role, issuedAt));
+        return request;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
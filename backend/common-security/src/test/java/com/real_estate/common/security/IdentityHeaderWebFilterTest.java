@@ -0,0 +1,64 @@
+package com.real_estate.common.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentityHeaderWebFilterTest {
+
+    private static final String KEY = "test-identity-signing-key";
+
+    private final IdentityHeaders signer = new IdentityHeaders(KEY);
+    private final IdentityHeaderWebFilter filter = new IdentityHeaderWebFilter(KEY, Duration.ofSeconds(60));
+
+    @Test
+    void signedIdentityBecomesThePrincipal() {
+        long now = System.currentTimeMillis() / 1000;
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/properties")
+                .header(IdentityHeaders.USER_ID, "user-1")
+                .header(IdentityHeaders.USER_EMAIL, "user@example.com")
+                .header(IdentityHeaders.USER_ROLE, "SELLER")
+                .header(IdentityHeaders.ISSUED_AT, Long.toString(now))
+                .header(IdentityHeaders.SIGNATURE, signer.sign("user-1", "user@example.com", "SELLER", now)));
+        AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+
+        filter.filter(exchange, e -> {
+            forwarded.set(e);
+            return e.getPrincipal().then();
+        }).block();
+
+        Principal principal = forwarded.get().getPrincipal().block();
+        assertThat(principal).isInstanceOf(Identity.class);
+        assertThat(principal.getName()).isEqualTo("user-1");
+        assertThat(((Identity) principal).getRole()).isEqualTo("SELLER");
+    }
+
+    @Test
+    void tamperedOrSpoofedIdentityIsRejected() {
+        long now = System.currentTimeMillis() / 1000;
+        MockServerWebExchange tampered = MockServerWebExchange.from(MockServerHttpRequest.get("/api/properties")
+                .header(IdentityHeaders.USER_ID, "admin")
+                .header(IdentityHeaders.ISSUED_AT, Long.toString(now))
+                .header(IdentityHeaders.SIGNATURE, signer.sign("user-1", "", "", now)));
+        MockServerWebExchange spoofed = MockServerWebExchange.from(MockServerHttpRequest.get("/api/properties")
+                .header(IdentityHeaders.USER_ID, "admin"));
+
+        for (MockServerWebExchange exchange : new MockServerWebExchange[]{tampered, spoofed}) {
+            AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+            filter.filter(exchange, e -> {
+                forwarded.set(e);
+                return e.getResponse().setComplete();
+            }).block();
+
+            assertThat(forwarded.get()).isNull();
+            assertThat(exchange.getResponse().getStatusCode().value()).isEqualTo(401);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.real_estate.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlatformTokenVerifierTest {
+
+    private static final String SECRET_1 = secret('a');
+    private static final String SECRET_2 = secret('b');
+
+    private final PlatformTokenVerifier verifier = new PlatformTokenVerifier("k1:" + SECRET_1 + ", k2:" + SECRET_2);
+
+    @Test
+    void validTokenCarriesItsClaims() {
+        String token = token("k1", verifier, payload("user-1", "SELLER", "access", 3, now() + 600));
+
+        assertThat(verifier.isPlatformToken(token)).isTrue();
+        PlatformToken verified = verifier.verify(token, PlatformTokenVerifier.ACCESS);
+        assertThat(verified.getUid()).isEqualTo("user-1");
+        assertThat(verified.getEmail()).isEqualTo("user@example.com");
+        assertThat(verified.getRole()).isEqualTo("SELLER");
+        assertThat(verified.getGeneration()).isEqualTo(3);
+        assertThat(verified.toVerifiedToken().getRole()).isEqualTo("SELLER");
+    }
+
+    @Test
+    void everyConfiguredKeyIsAccepted() {
+        String token = token("k2", verifier, payload("user-1", "BUYER", "access", 0, now() + 600));
+
+        assertThat(verifier.verify(token, PlatformTokenVerifier.ACCESS).getUid()).isEqualTo("user-1");
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = token("k1", verifier, payload("user-1", "BUYER", "access", 0, now() + 600));
+        String[] parts = token.split("\\.");
+        String elevated = parts[0] + "." + encode(payload("user-1", "ADMIN", "access", 0, now() + 600)) + "." + parts[2];
+
+        assertThatThrownBy(() -> verifier.verify(elevated, PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() {
+        String token = token("k1", verifier, payload("user-1", "BUYER", "access", 0, now() + 600));
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'Q' : 'A');
+
+        assertThatThrownBy(() -> verifier.verify(tampered, PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        PlatformTokenVerifier other = new PlatformTokenVerifier("k1:" + secret('z'));
+        String forged = token("k1", other, payload("user-1", "ADMIN", "access", 0, now() + 600));
+
+        assertThatThrownBy(() -> verifier.verify(forged, PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = token("k1", verifier, payload("user-1", "BUYER", "access", 0, now() - 1));
+
+        assertThatThrownBy(() -> verifier.verify(token, PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void refreshTokenIsNotAnAccessToken() {
+        String token = token("k1", verifier, payload("user-1", "BUYER", "refresh", 0, now() + 600));
+
+        assertThatThrownBy(() -> verifier.verify(token, PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+        assertThat(verifier.verify(token, PlatformTokenVerifier.REFRESH).getType()).isEqualTo("refresh");
+    }
+
+    @Test
+    void unknownKeyAndMalformedTokensAreRejected() {
+        PlatformTokenVerifier unknown = new PlatformTokenVerifier("k9:" + SECRET_1);
+        String token = token("k9", unknown, payload("user-1", "BUYER", "access", 0, now() + 600));
+
+        assertThat(verifier.isPlatformToken(token)).isFalse();
+        assertThatThrownBy(() -> verifier.verify(token, PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> verifier.verify("no-dots", PlatformTokenVerifier.ACCESS))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shortKeysAreRefusedAtStartup() {
+        String shortSecret = Base64.getEncoder().encodeToString("too-short".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> new PlatformTokenVerifier("k1:" + SECRET_1 + ",k2:" + shortSecret))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("k2");
+    }
+
+    private static String token(String kid, PlatformTokenVerifier signer, String payload) {
+        String signed = PlatformTokenVerifier.headerFor(kid) + "." + encode(payload);
+        return signed + "." + PlatformTokenVerifier.BASE64URL.encodeToString(
+                signer.sign(PlatformTokenVerifier.headerFor(kid), signed, signed.length()));
+    }
+
+    private static String payload(String uid, String role, String type, long generation, long exp) {
+        return "{\"iss\":\"real-estate-platform\",\"sub\":\"" + uid + "\",\"email\":\"user@example.com\",\"role\":\"" + role
+                + "\",\"typ\":\"" + type + "\",\"gen\":" + generation + ",\"iat\":" + now() + ",\"exp\":" + exp + "}";
+    }
+
+    private static String encode(String json) {
+        return PlatformTokenVerifier.BASE64URL.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
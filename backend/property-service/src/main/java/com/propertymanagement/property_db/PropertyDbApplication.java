@@ -2,8 +2,10 @@ package com.propertymanagement.property_db;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PropertyDbApplication {
 
 	public static void main(String[] args) {
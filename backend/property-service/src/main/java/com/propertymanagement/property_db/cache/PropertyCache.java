@@ -0,0 +1,60 @@
+package com.propertymanagement.property_db.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.propertymanagement.property_db.model.Property;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for property lookups by id. Missing ids are cached
+ * too (as empty) with a shorter TTL, so repeated lookups of a deleted listing
+ * don't reach Mongo. Hit/miss/eviction counts are published as cache.* metrics.
+ */
+@Component
+public class PropertyCache {
+
+    private final Cache<String, Optional<Property>> cache;
+
+    public PropertyCache(@Value("${property.cache.max-size:10000}") long maxSize,
+                         @Value("${property.cache.ttl:5m}") Duration ttl,
+                         @Value("${property.cache.negative-ttl:30s}") Duration negativeTtl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Optional<Property>>writing((id, value) -> value.isPresent() ? ttl : negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "propertyById");
+    }
+
+    public Optional<Property> get(String id, Function<String, Optional<Property>> loader) {
+        return cache.get(id, loader);
+    }
+
+    // For non-blocking callers that load on their own: null means not cached
+    public Optional<Property> getIfPresent(String id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void put(String id, Optional<Property> value) {
+        cache.put(id, value);
+    }
+
+    public void invalidate(String id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
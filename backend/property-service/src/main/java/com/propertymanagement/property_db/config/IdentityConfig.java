@@ -0,0 +1,33 @@
+package com.propertymanagement.property_db.config;
+
+import com.real_estate.common.security.IdentityHeaderFilter;
+import com.real_estate.common.security.IdentityHeaderWebFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Caller identity as verified by the api-gateway, in whichever web stack is running
+@Configuration
+public class IdentityConfig {
+
+    @Value("${identity.signing-key:}")
+    private String identitySigningKey;
+
+    @Value("${identity.max-age:PT60S}")
+    private Duration identityMaxAge;
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public IdentityHeaderFilter identityHeaderFilter() {
+        return new IdentityHeaderFilter(identitySigningKey, identityMaxAge);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public IdentityHeaderWebFilter identityHeaderWebFilter() {
+        return new IdentityHeaderWebFilter(identitySigningKey, identityMaxAge);
+    }
+}
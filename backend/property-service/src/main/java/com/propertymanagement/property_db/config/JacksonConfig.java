@@ -0,0 +1,17 @@
+package com.propertymanagement.property_db.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
+
+@Configuration
+public class JacksonConfig {
+
+    // Spring Data registers the GeoJSON deserializers as "geoJsonModule"; add the serializers
+    // so Property.coordinates is written back as plain GeoJSON too
+    @Bean
+    public Module geoJsonSerializers() {
+        return GeoJsonModule.serializers();
+    }
+}
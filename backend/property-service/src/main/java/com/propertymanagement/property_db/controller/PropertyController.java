@@ -1,36 +1,169 @@
 package com.propertymanagement.property_db.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.propertymanagement.property_db.dto.BulkIngestResult;
+import com.propertymanagement.property_db.dto.PriceHistogram;
+import com.propertymanagement.property_db.dto.PriceSummary;
+import com.propertymanagement.property_db.dto.PropertyFacets;
 import com.propertymanagement.property_db.model.Property;
+import com.propertymanagement.property_db.service.PropertyBulkService;
 import com.propertymanagement.property_db.service.PropertyService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/properties")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PropertyController {
 
     @Autowired
     private PropertyService propertyService;
 
+    @Autowired
+    private PropertyBulkService propertyBulkService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ✅ Create or Update property
     @PostMapping
     public Property addProperty(@RequestBody Property property) {
         return propertyService.saveProperty(property);
     }
 
-    // ✅ Get all properties
+    // ✅ Bulk create or update from a JSON array or an NDJSON stream
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkIngestResult> bulkAddProperties(HttpServletRequest request) throws IOException {
+        BulkIngestResult result = propertyBulkService.ingest(request.getInputStream());
+        // A truncated body is still a bad request, but the caller gets to see what was stored
+        return result.isTruncated() ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+    }
+
+    // ✅ Get properties, one keyset page at a time (all=true returns everything as one unbounded page)
     @GetMapping
-    public List<Property> getAllProperties() {
-        return propertyService.getAllProperties();
+    public ResponseEntity<?> getAllProperties(@RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "false") boolean all,
+                                              WebRequest request) {
+        // Nothing written since the client's copy: 304 without loading the list
+        if (request.checkNotModified(propertyService.getCollectionETag())) {
+            return null;
+        }
+        if (all) {
+            return ResponseEntity.ok(propertyService.getAllProperties());
+        }
+        return ResponseEntity.ok(propertyService.getPropertyPage(limit, after));
     }
 
-    // ✅ Get property by ID
+    // ✅ Full-text search over title, description and location
+    @GetMapping("/search")
+    public List<Property> searchProperties(@RequestParam String q,
+                                           @RequestParam(required = false) Integer limit) {
+        return propertyService.searchProperties(q, limit);
+    }
+
+    // ✅ Properties within radiusKm of a point, nearest first
+    @GetMapping("/near")
+    public List<Property> getPropertiesNear(@RequestParam double lng,
+                                            @RequestParam double lat,
+                                            @RequestParam(defaultValue = "5") double radiusKm,
+                                            @RequestParam(required = false) Integer limit) {
+        return propertyService.findPropertiesNear(lng, lat, radiusKm, limit);
+    }
+
+    // ✅ Properties inside a map viewport (bounding box)
+    @GetMapping("/within")
+    public List<Property> getPropertiesWithin(@RequestParam double minLng,
+                                              @RequestParam double minLat,
+                                              @RequestParam double maxLng,
+                                              @RequestParam double maxLat,
+                                              @RequestParam(required = false) Integer limit) {
+        return propertyService.findPropertiesWithin(minLng, minLat, maxLng, maxLat, limit);
+    }
+
+    // ✅ Properties priced within [min, max], cheapest first
+    @GetMapping("/price-range")
+    public List<PriceSummary> getPropertiesByPriceRange(@RequestParam(defaultValue = "0") double min,
+                                                        @RequestParam(defaultValue = "Infinity") double max,
+                                                        @RequestParam(required = false) String location,
+                                                        @RequestParam(required = false) Integer limit) {
+        return propertyService.findByPriceRange(min, max, location, limit);
+    }
+
+    // ✅ Most expensive properties (ascending=true for the cheapest)
+    @GetMapping("/top-priced")
+    public List<PriceSummary> getTopPricedProperties(@RequestParam(required = false) String location,
+                                                     @RequestParam(defaultValue = "false") boolean ascending,
+                                                     @RequestParam(required = false) Integer limit) {
+        return propertyService.findTopPriced(location, ascending, limit);
+    }
+
+    // ✅ Price histogram for the listing page slider
+    @GetMapping("/price-histogram")
+    public PriceHistogram getPriceHistogram(@RequestParam(required = false) Double min,
+                                            @RequestParam(required = false) Double max,
+                                            @RequestParam(defaultValue = "20") int buckets) {
+        return propertyService.getPriceHistogram(min, max, buckets);
+    }
+
+    // ✅ Listing counts per location and per price bucket
+    @GetMapping("/facets")
+    public PropertyFacets getFacets() {
+        return propertyService.getFacets();
+    }
+
+    // ✅ Export every property as newline-delimited JSON, streamed from a Mongo cursor
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProperties() {
+        ObjectWriter writer = objectMapper.writerFor(Property.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            // Closes the cursor and the generator on failure too; the servlet closes the response stream
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                         .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                 Stream<Property> properties = propertyService.streamAllProperties()) {
+                generator.setRootValueSeparator(null);
+                Iterator<Property> it = properties.iterator();
+                while (it.hasNext()) {
+                    writer.writeValue(generator, it.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // ✅ Get property by ID (304 when If-None-Match / If-Modified-Since still match)
     @GetMapping("/{id}")
-    public Optional<Property> getPropertyById(@PathVariable String id) {
-        return propertyService.getPropertyById(id);
+    public ResponseEntity<Property> getPropertyById(@PathVariable String id, WebRequest request) {
+        Optional<Property> property = propertyService.getPropertyById(id);
+        if (property.isEmpty()) {
+            return ResponseEntity.ok().build();
+        }
+        Instant lastModified = property.get().getLastModified();
+        long lastModifiedMillis = lastModified == null ? -1 : lastModified.toEpochMilli();
+        String etag = "\"" + id + "-" + Long.toHexString(Math.max(lastModifiedMillis, 0)) + "\"";
+        if (request.checkNotModified(etag, lastModifiedMillis)) {
+            return null;
+        }
+        return ResponseEntity.ok(property.get());
     }
 
     // ✅ Delete property by ID
@@ -39,4 +172,10 @@ public class PropertyController {
         propertyService.deleteProperty(id);
         return "Property deleted with id: " + id;
     }
+
+    // Invalid ids, tokens or query parameters
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
 }
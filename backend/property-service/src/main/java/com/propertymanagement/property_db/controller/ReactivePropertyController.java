@@ -0,0 +1,156 @@
+package com.propertymanagement.property_db.controller;
+
+import com.propertymanagement.property_db.dto.PriceHistogram;
+import com.propertymanagement.property_db.dto.PriceSummary;
+import com.propertymanagement.property_db.dto.PropertyFacets;
+import com.propertymanagement.property_db.model.Property;
+import com.propertymanagement.property_db.service.PropertyService;
+import com.propertymanagement.property_db.service.ReactivePropertyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * WebFlux twin of PropertyController, active when the service runs with
+ * spring.main.web-application-type=reactive. Everything is Mono/Flux end to end;
+ * in-memory endpoints are served straight from PropertyService. Bulk ingest is
+ * only available in the servlet mode.
+ */
+@RestController
+@RequestMapping("/api/properties")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePropertyController {
+
+    @Autowired
+    private ReactivePropertyService reactivePropertyService;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    // ✅ Create or Update property
+    @PostMapping
+    public Mono<Property> addProperty(@RequestBody Property property) {
+        return reactivePropertyService.saveProperty(property);
+    }
+
+    // ✅ Get properties, one keyset page at a time (all=true returns everything as one unbounded page)
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAllProperties(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(defaultValue = "false") boolean all,
+                                                    ServerWebExchange exchange) {
+        return reactivePropertyService.getCollectionETag().flatMap(etag -> {
+            // Nothing written since the client's copy: 304 without loading the list
+            if (exchange.checkNotModified(etag)) {
+                return Mono.empty();
+            }
+            if (all) {
+                return reactivePropertyService.getAllPropertiesPage().<ResponseEntity<?>>map(ResponseEntity::ok);
+            }
+            return reactivePropertyService.getPropertyPage(limit, after)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .onErrorResume(IllegalArgumentException.class,
+                            e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+        });
+    }
+
+    // ✅ Full-text search over title, description and location
+    @GetMapping("/search")
+    public Flux<Property> searchProperties(@RequestParam String q,
+                                           @RequestParam(required = false) Integer limit) {
+        return reactivePropertyService.searchProperties(q, limit);
+    }
+
+    // ✅ Properties within radiusKm of a point, nearest first
+    @GetMapping("/near")
+    public Flux<Property> getPropertiesNear(@RequestParam double lng,
+                                            @RequestParam double lat,
+                                            @RequestParam(defaultValue = "5") double radiusKm,
+                                            @RequestParam(required = false) Integer limit) {
+        return reactivePropertyService.findPropertiesNear(lng, lat, radiusKm, limit);
+    }
+
+    // ✅ Properties inside a map viewport (bounding box)
+    @GetMapping("/within")
+    public Flux<Property> getPropertiesWithin(@RequestParam double minLng,
+                                              @RequestParam double minLat,
+                                              @RequestParam double maxLng,
+                                              @RequestParam double maxLat,
+                                              @RequestParam(required = false) Integer limit) {
+        return reactivePropertyService.findPropertiesWithin(minLng, minLat, maxLng, maxLat, limit);
+    }
+
+    // ✅ Properties priced within [min, max], cheapest first
+    @GetMapping("/price-range")
+    public List<PriceSummary> getPropertiesByPriceRange(@RequestParam(defaultValue = "0") double min,
+                                                        @RequestParam(defaultValue = "Infinity") double max,
+                                                        @RequestParam(required = false) String location,
+                                                        @RequestParam(required = false) Integer limit) {
+        return propertyService.findByPriceRange(min, max, location, limit);
+    }
+
+    // ✅ Most expensive properties (ascending=true for the cheapest)
+    @GetMapping("/top-priced")
+    public List<PriceSummary> getTopPricedProperties(@RequestParam(required = false) String location,
+                                                     @RequestParam(defaultValue = "false") boolean ascending,
+                                                     @RequestParam(required = false) Integer limit) {
+        return propertyService.findTopPriced(location, ascending, limit);
+    }
+
+    // ✅ Price histogram for the listing page slider
+    @GetMapping("/price-histogram")
+    public PriceHistogram getPriceHistogram(@RequestParam(required = false) Double min,
+                                            @RequestParam(required = false) Double max,
+                                            @RequestParam(defaultValue = "20") int buckets) {
+        return propertyService.getPriceHistogram(min, max, buckets);
+    }
+
+    // ✅ Listing counts per location and per price bucket
+    @GetMapping("/facets")
+    public PropertyFacets getFacets() {
+        return propertyService.getFacets();
+    }
+
+    // ✅ Export every property as newline-delimited JSON, streamed from a Mongo cursor
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Property> exportProperties() {
+        return reactivePropertyService.getAllProperties();
+    }
+
+    // ✅ Get property by ID (304 when If-None-Match / If-Modified-Since still match)
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Property>> getPropertyById(@PathVariable String id, ServerWebExchange exchange) {
+        return reactivePropertyService.getPropertyById(id)
+                .map(property -> {
+                    Instant lastModified = property.getLastModified() == null ? Instant.EPOCH : property.getLastModified();
+                    String etag = "\"" + id + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+                    if (exchange.checkNotModified(etag, lastModified)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Property>build();
+                    }
+                    return ResponseEntity.ok(property);
+                })
+                .defaultIfEmpty(ResponseEntity.ok().build());
+    }
+
+    // ✅ Delete property by ID
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteProperty(@PathVariable String id) {
+        return reactivePropertyService.deleteProperty(id)
+                .thenReturn("Property deleted with id: " + id);
+    }
+
+    // Invalid ids, tokens or query parameters
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,97 @@
+package com.propertymanagement.property_db.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk ingest: totals plus one entry per failed item, so the response
+ * grows with the failures rather than with the input. {@code truncated} means the body
+ * could not be read to the end; the failure with the highest index is where reading
+ * stopped, and nothing after it was stored.
+ */
+public class BulkIngestResult {
+    private int received;
+    private int inserted;
+    private int updated;
+    private int failed;
+    private boolean truncated;
+    private List<ItemResult> failures = new ArrayList<>();
+
+    public void add(ItemResult item) {
+        received++;
+        switch (item.getStatus()) {
+            case INSERTED -> inserted++;
+            case UPDATED -> updated++;
+            case FAILED -> {
+                failed++;
+                failures.add(item);
+            }
+        }
+    }
+
+    // Record the item at which the body stopped being readable
+    public void truncate(int index, String error) {
+        add(new ItemResult(index, null, Status.FAILED, error));
+        truncated = true;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public List<ItemResult> getFailures() {
+        return failures;
+    }
+
+    public enum Status {
+        INSERTED, UPDATED, FAILED
+    }
+
+    public static class ItemResult {
+        private int index;
+        private String id;
+        private Status status;
+        private String error;
+
+        public ItemResult() {}
+
+        public ItemResult(int index, String id, Status status, String error) {
+            this.index = index;
+            this.id = id;
+            this.status = status;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.propertymanagement.property_db.dto;
+
+/**
+ * Equal-width price buckets: bucket i covers [min + i * bucketWidth, min + (i + 1) * bucketWidth),
+ * with the last bucket also including max.
+ */
+public class PriceHistogram {
+    private double min;
+    private double max;
+    private double bucketWidth;
+    private long[] counts;
+
+    public PriceHistogram() {}
+
+    public PriceHistogram(double min, double max, double bucketWidth, long[] counts) {
+        this.min = min;
+        this.max = max;
+        this.bucketWidth = bucketWidth;
+        this.counts = counts;
+    }
+
+    public double getMin() {
+        return min;
+    }
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    public double getBucketWidth() {
+        return bucketWidth;
+    }
+    public void setBucketWidth(double bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    public long[] getCounts() {
+        return counts;
+    }
+    public void setCounts(long[] counts) {
+        this.counts = counts;
+    }
+}
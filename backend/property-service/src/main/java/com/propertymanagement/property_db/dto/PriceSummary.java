@@ -0,0 +1,39 @@
+package com.propertymanagement.property_db.dto;
+
+/**
+ * The filterable columns of one property, served from the in-memory price snapshot.
+ */
+public class PriceSummary {
+    private String id;
+    private String location;
+    private double price;
+
+    public PriceSummary() {}
+
+    public PriceSummary(String id, String location, double price) {
+        this.id = id;
+        this.location = location;
+        this.price = price;
+    }
+
+    public String getId() {
+        return id;
+    }
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+    public void setPrice(double price) {
+        this.price = price;
+    }
+}
@@ -0,0 +1,33 @@
+package com.propertymanagement.property_db.dto;
+
+import java.util.Map;
+
+/**
+ * Listing counts per location and per price bucket. Price buckets are keyed by
+ * label ("<100000", "100000-250000", "1000000+") in ascending price order.
+ */
+public class PropertyFacets {
+    private Map<String, Long> locations;
+    private Map<String, Long> prices;
+
+    public PropertyFacets() {}
+
+    public PropertyFacets(Map<String, Long> locations, Map<String, Long> prices) {
+        this.locations = locations;
+        this.prices = prices;
+    }
+
+    public Map<String, Long> getLocations() {
+        return locations;
+    }
+    public void setLocations(Map<String, Long> locations) {
+        this.locations = locations;
+    }
+
+    public Map<String, Long> getPrices() {
+        return prices;
+    }
+    public void setPrices(Map<String, Long> prices) {
+        this.prices = prices;
+    }
+}
@@ -0,0 +1,44 @@
+package com.propertymanagement.property_db.dto;
+
+import com.propertymanagement.property_db.model.Property;
+
+import java.util.List;
+
+/**
+ * One keyset page of properties. {@code next} is an opaque continuation token
+ * to pass back as {@code after}; it is null on the last page.
+ */
+public class PropertyPage {
+    private List<Property> items;
+    private String next;
+    private int limit;
+
+    public PropertyPage() {}
+
+    public PropertyPage(List<Property> items, String next, int limit) {
+        this.items = items;
+        this.next = next;
+        this.limit = limit;
+    }
+
+    public List<Property> getItems() {
+        return items;
+    }
+    public void setItems(List<Property> items) {
+        this.items = items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -1,8 +1,13 @@
 package com.propertymanagement.property_db.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Document(collection = "properties")
 public class Property {
     @Id
@@ -12,6 +17,13 @@ public class Property {
     private double price;
     private String description;
 
+    // GeoJSON point, [longitude, latitude]
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint coordinates;
+
+    // Set on every write; drives ETag / Last-Modified on GET of a single property
+    private Instant lastModified;
+
     // ✅ Constructors
     public Property() {}
 
@@ -57,4 +69,18 @@ public class Property {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public GeoJsonPoint getCoordinates() {
+        return coordinates;
+    }
+    public void setCoordinates(GeoJsonPoint coordinates) {
+        this.coordinates = coordinates;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
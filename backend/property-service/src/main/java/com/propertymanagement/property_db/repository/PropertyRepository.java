@@ -1,10 +1,22 @@
 package com.propertymanagement.property_db.repository;
 
 import com.propertymanagement.property_db.model.Property;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PropertyRepository extends MongoRepository<Property, String> {
-    // You can later add custom queries here if needed
+
+    // Keyset pagination on _id: first page, then everything after the last seen id
+    List<Property> findAllByOrderByIdAsc(Limit limit);
+
+    List<Property> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Served by the 2dsphere index on coordinates, nearest first
+    List<Property> findByCoordinatesNear(Point point, Distance maxDistance, Limit limit);
 }
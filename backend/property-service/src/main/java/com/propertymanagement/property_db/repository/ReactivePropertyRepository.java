@@ -0,0 +1,20 @@
+package com.propertymanagement.property_db.repository;
+
+import com.propertymanagement.property_db.model.Property;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking counterpart of PropertyRepository, used when the service runs on WebFlux
+@Repository
+public interface ReactivePropertyRepository extends ReactiveMongoRepository<Property, String> {
+
+    Flux<Property> findAllByOrderByIdAsc(Limit limit);
+
+    Flux<Property> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    Flux<Property> findByCoordinatesNear(Point point, Distance maxDistance, Limit limit);
+}
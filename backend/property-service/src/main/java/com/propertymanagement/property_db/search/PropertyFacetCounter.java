@@ -0,0 +1,169 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.dto.PropertyFacets;
+import com.propertymanagement.property_db.model.Property;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Facet counts per location and per price bucket, adjusted on every save and
+ * delete (including writes from other replicas relayed by
+ * PropertyChangeStreamListener) so serving them never scans the collection.
+ * Counts can still drift if a write bypasses this service; PropertyService
+ * periodically rebuilds them, and the per-property entries behind them, from a
+ * scan of the collection.
+ */
+@Component
+public class PropertyFacetCounter {
+
+    private final double[] boundaries;
+    private final String[] bucketLabels;
+
+    private final Map<String, Long> locationCounts = new HashMap<>();
+    private final long[] bucketCounts;
+    // property id -> what it was last counted under, so an update can move it
+    private final Map<String, Entry> entries = new HashMap<>();
+    // The reconciliation currently reading Mongo, if any; it collects writes made meanwhile
+    private Reconciliation reconciling;
+
+    public PropertyFacetCounter(@Value("${property.facets.price-boundaries:100000,250000,500000,1000000}") double[] boundaries) {
+        this.boundaries = boundaries.clone();
+        Arrays.sort(this.boundaries);
+        this.bucketCounts = new long[this.boundaries.length + 1];
+        this.bucketLabels = new String[this.boundaries.length + 1];
+        for (int i = 0; i <= this.boundaries.length; i++) {
+            if (i == 0) {
+                bucketLabels[i] = "<" + format(this.boundaries[0]);
+            } else if (i == this.boundaries.length) {
+                bucketLabels[i] = format(this.boundaries[i - 1]) + "+";
+            } else {
+                bucketLabels[i] = format(this.boundaries[i - 1]) + "-" + format(this.boundaries[i]);
+            }
+        }
+    }
+
+    public synchronized void index(Property property) {
+        if (property.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(property.getLocation(), bucketOf(property.getPrice()));
+        put(property.getId(), entry);
+        if (reconciling != null) {
+            reconciling.writes.put(property.getId(), entry);
+        }
+    }
+
+    public synchronized void remove(String id) {
+        uncount(entries.remove(id));
+        if (reconciling != null) {
+            reconciling.writes.put(id, null);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        locationCounts.clear();
+        Arrays.fill(bucketCounts, 0);
+    }
+
+    /**
+     * Start rebuilding from a scan of the collection: feed every stored property
+     * to {@link Reconciliation#add}, then pass it to {@link #finishReconcile}.
+     * Writes made while the scan runs are replayed on top of its result, so a
+     * document the scan read before it changed still ends up counted as it is now.
+     */
+    public synchronized Reconciliation startReconcile() {
+        reconciling = new Reconciliation();
+        return reconciling;
+    }
+
+    // Replace all entries and counts with the scanned ones plus the writes made meanwhile
+    public synchronized void finishReconcile(Reconciliation reconciliation) {
+        if (reconciling != reconciliation) {
+            return;
+        }
+        reconciling = null;
+        clear();
+        reconciliation.scanned.forEach(this::put);
+        reconciliation.writes.forEach((id, entry) -> {
+            if (entry == null) {
+                uncount(entries.remove(id));
+            } else {
+                put(id, entry);
+            }
+        });
+    }
+
+    public synchronized void cancelReconcile(Reconciliation reconciliation) {
+        if (reconciling == reconciliation) {
+            reconciling = null;
+        }
+    }
+
+    public synchronized PropertyFacets snapshot() {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            prices.put(bucketLabels[i], bucketCounts[i]);
+        }
+        return new PropertyFacets(new HashMap<>(locationCounts), prices);
+    }
+
+    public int bucketOf(double price) {
+        int i = Arrays.binarySearch(boundaries, price);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private static String locationKey(String location) {
+        return location == null ? "unknown" : location;
+    }
+
+    private void put(String id, Entry entry) {
+        uncount(entries.put(id, entry));
+        locationCounts.merge(locationKey(entry.location), 1L, Long::sum);
+        bucketCounts[entry.bucket]++;
+    }
+
+    private void uncount(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        locationCounts.computeIfPresent(locationKey(entry.location), (k, n) -> n > 1 ? n - 1 : null);
+        bucketCounts[entry.bucket] = Math.max(0, bucketCounts[entry.bucket] - 1);
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    // Entries read by one reconcile scan; only touched by the thread running the scan
+    public final class Reconciliation {
+        private final Map<String, Entry> scanned = new HashMap<>();
+        // Writes made during the scan; null marks a delete. Guarded by the counter's lock.
+        private final Map<String, Entry> writes = new HashMap<>();
+
+        private Reconciliation() {
+        }
+
+        public void add(Property property) {
+            if (property.getId() != null) {
+                scanned.put(property.getId(), new Entry(property.getLocation(), bucketOf(property.getPrice())));
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String location;
+        private final int bucket;
+
+        private Entry(String location, int bucket) {
+            this.location = location;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.model.Property;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-size lat/lng grid over property coordinates for map-viewport queries.
+ * A bounding-box lookup only visits the cells it overlaps, so it never touches
+ * Mongo. Kept in sync by PropertyService on every save and delete, including
+ * writes from other replicas relayed by PropertyChangeStreamListener.
+ */
+@Component
+public class PropertyGeoIndex {
+
+    private final double cellDegrees;
+
+    // cell key -> points in that cell
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    // property id -> its indexed point, needed to move or unindex a property
+    private final Map<String, Point> points = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public PropertyGeoIndex(@Value("${property.geo.cell-degrees:0.05}") double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 180)) {
+            throw new IllegalArgumentException("property.geo.cell-degrees must be in (0, 180]: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    // Reject NaN and anything off the globe before it reaches the grid arithmetic
+    public static void checkLongitude(String name, double value) {
+        if (!(value >= -180 && value <= 180)) {
+            throw new IllegalArgumentException(name + " must be between -180 and 180");
+        }
+    }
+
+    public static void checkLatitude(String name, double value) {
+        if (!(value >= -90 && value <= 90)) {
+            throw new IllegalArgumentException(name + " must be between -90 and 90");
+        }
+    }
+
+    // Add, move or drop a property depending on its current coordinates
+    public void index(Property property) {
+        if (property.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(property.getId());
+            if (property.getCoordinates() != null) {
+                Point point = new Point(property.getId(), property.getCoordinates().getX(), property.getCoordinates().getY());
+                points.put(point.id, point);
+                cells.computeIfAbsent(cellKey(point.lng, point.lat), k -> new ArrayList<>()).add(point);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Return up to limit property ids inside the box; minLng > maxLng means the box crosses the antimeridian
+    public List<String> within(double minLng, double minLat, double maxLng, double maxLat, int limit) {
+        checkLongitude("minLng", minLng);
+        checkLongitude("maxLng", maxLng);
+        checkLatitude("minLat", minLat);
+        checkLatitude("maxLat", maxLat);
+        if (minLat > maxLat) {
+            throw new IllegalArgumentException("minLat must not be greater than maxLat");
+        }
+        List<String> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (minLng > maxLng) {
+                collect(minLng, minLat, 180, maxLat, limit, ids);
+                collect(-180, minLat, maxLng, maxLat, limit, ids);
+            } else {
+                collect(minLng, minLat, maxLng, maxLat, limit, ids);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    private void collect(double minLng, double minLat, double maxLng, double maxLat, int limit, List<String> out) {
+        long minX = cellIndex(minLng);
+        long maxX = cellIndex(maxLng);
+        long minY = cellIndex(minLat);
+        long maxY = cellIndex(maxLat);
+
+        // A huge viewport covers more cells than we have; walk the occupied cells instead.
+        // Counted in double so no box size can overflow into a small number.
+        double boxCells = (double) (maxX - minX + 1) * (double) (maxY - minY + 1);
+        if (boxCells > cells.size()) {
+            for (List<Point> cell : cells.values()) {
+                if (!collectCell(cell, minLng, minLat, maxLng, maxLat, limit, out)) {
+                    return;
+                }
+            }
+            return;
+        }
+        for (long x = minX; x <= maxX; x++) {
+            for (long y = minY; y <= maxY; y++) {
+                List<Point> cell = cells.get(key(x, y));
+                if (cell != null && !collectCell(cell, minLng, minLat, maxLng, maxLat, limit, out)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Returns false once the limit is reached
+    private static boolean collectCell(List<Point> cell, double minLng, double minLat, double maxLng, double maxLat,
+                                       int limit, List<String> out) {
+        for (Point point : cell) {
+            if (point.lng >= minLng && point.lng <= maxLng && point.lat >= minLat && point.lat <= maxLat) {
+                if (out.size() >= limit) {
+                    return false;
+                }
+                out.add(point.id);
+            }
+        }
+        return out.size() < limit;
+    }
+
+    private void removeLocked(String id) {
+        Point point = points.remove(id);
+        if (point == null) {
+            return;
+        }
+        long key = cellKey(point.lng, point.lat);
+        List<Point> cell = cells.get(key);
+        cell.remove(point);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    // Clamped to the globe, so a cell index is always within a few thousand of zero
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(Math.max(-180, Math.min(180, degrees)) / cellDegrees);
+    }
+
+    private long cellKey(double lng, double lat) {
+        return key(cellIndex(lng), cellIndex(lat));
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) ^ (y & 0xffffffffL);
+    }
+
+    private static final class Point {
+        private final String id;
+        private final double lng;
+        private final double lat;
+
+        private Point(String id, double lng, double lat) {
+            this.id = id;
+            this.lng = lng;
+            this.lat = lat;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.dto.PriceHistogram;
+import com.propertymanagement.property_db.dto.PriceSummary;
+import com.propertymanagement.property_db.model.Property;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of the fields the listing page filters on: price as a
+ * double[] and location as dictionary-encoded int ids. Range filters, top-N and
+ * histograms run over the primitive arrays without touching Mongo.
+ * Kept in sync by PropertyService on every save and delete, including writes
+ * from other replicas relayed by PropertyChangeStreamListener.
+ */
+@Component
+public class PropertyPriceSnapshot {
+
+    private static final int NO_LOCATION = -1;
+
+    // Parallel columns, dense in [0, size); a delete moves the last row into the hole
+    private String[] ids = new String[1024];
+    private double[] prices = new double[1024];
+    private int[] locations = new int[1024];
+    private int size;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Map<String, Integer> locationIds = new HashMap<>();
+    private final List<String> locationNames = new ArrayList<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(Property property) {
+        if (property.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(property.getId());
+            if (slot == null) {
+                if (size == ids.length) {
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    prices = Arrays.copyOf(prices, capacity);
+                    locations = Arrays.copyOf(locations, capacity);
+                }
+                slot = size++;
+                slots.put(property.getId(), slot);
+                ids[slot] = property.getId();
+            }
+            prices[slot] = property.getPrice();
+            locations[slot] = encodeLocation(property.getLocation());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.remove(id);
+            if (slot == null) {
+                return;
+            }
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                prices[slot] = prices[last];
+                locations[slot] = locations[last];
+                slots.put(ids[slot], slot);
+            }
+            ids[last] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(ids, 0, size, null);
+            size = 0;
+            slots.clear();
+            locationIds.clear();
+            locationNames.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit properties with min <= price <= max (and the given location,
+     * if any), ordered by price ascending or descending.
+     */
+    public List<PriceSummary> select(double min, double max, String location, int limit, boolean descending) {
+        lock.readLock().lock();
+        try {
+            int locationId = location == null ? NO_LOCATION : locationIds.getOrDefault(location, -2);
+            if (locationId == -2 || limit <= 0) {
+                return List.of();
+            }
+
+            // Bounded heap of slots whose root is the worst kept row
+            int[] heap = new int[Math.min(limit, size)];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                double price = prices[i];
+                if (price < min || price > max || (locationId != NO_LOCATION && locations[i] != locationId)) {
+                    continue;
+                }
+                if (count < heap.length) {
+                    heap[count] = i;
+                    siftUp(heap, count++, descending);
+                } else if (better(price, prices[heap[0]], descending)) {
+                    heap[0] = i;
+                    siftDown(heap, count, descending);
+                }
+            }
+
+            PriceSummary[] out = new PriceSummary[count];
+            for (int n = count; n > 0; n--) {
+                int slot = heap[0];
+                out[n - 1] = new PriceSummary(ids[slot], decodeLocation(locations[slot]), prices[slot]);
+                heap[0] = heap[n - 1];
+                siftDown(heap, n - 1, descending);
+            }
+            return Arrays.asList(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Equal-width price histogram; null bounds default to the current min/max price
+    public PriceHistogram histogram(Double min, Double max, int buckets) {
+        lock.readLock().lock();
+        try {
+            double lo = min != null ? min : Double.POSITIVE_INFINITY;
+            double hi = max != null ? max : Double.NEGATIVE_INFINITY;
+            if (min == null || max == null) {
+                for (int i = 0; i < size; i++) {
+                    if (min == null) lo = Math.min(lo, prices[i]);
+                    if (max == null) hi = Math.max(hi, prices[i]);
+                }
+            }
+            long[] counts = new long[buckets];
+            if (size == 0 || hi < lo) {
+                return new PriceHistogram(size == 0 ? 0 : lo, size == 0 ? 0 : hi, 0, counts);
+            }
+
+            double width = (hi - lo) / buckets;
+            for (int i = 0; i < size; i++) {
+                double price = prices[i];
+                if (price < lo || price > hi) {
+                    continue;
+                }
+                int bucket = width == 0 ? 0 : (int) ((price - lo) / width);
+                counts[Math.min(bucket, buckets - 1)]++;
+            }
+            return new PriceHistogram(lo, hi, width, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int encodeLocation(String location) {
+        if (location == null) {
+            return NO_LOCATION;
+        }
+        Integer id = locationIds.get(location);
+        if (id == null) {
+            id = locationNames.size();
+            locationIds.put(location, id);
+            locationNames.add(location);
+        }
+        return id;
+    }
+
+    private String decodeLocation(int id) {
+        return id == NO_LOCATION ? null : locationNames.get(id);
+    }
+
+    // True when price a should be kept over price b
+    private static boolean better(double a, double b, boolean descending) {
+        return descending ? a > b : a < b;
+    }
+
+    private void siftUp(int[] heap, int i, boolean descending) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(prices[heap[parent]], prices[heap[i]], descending)) {
+                break;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int n, boolean descending) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= n) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < n && better(prices[heap[left]], prices[heap[right]], descending)) {
+                worst = right;
+            }
+            if (!better(prices[heap[i]], prices[heap[worst]], descending)) {
+                break;
+            }
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -0,0 +1,159 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.model.Property;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over property title, description and location,
+ * ranked with BM25. Kept in sync by PropertyService on every save and delete,
+ * including writes from other replicas relayed by PropertyChangeStreamListener.
+ */
+@Component
+public class PropertySearchIndex {
+
+    private static final Pattern TOKEN_SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // term -> (property id -> term frequency)
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+    // property id -> (term -> term frequency), needed to unindex a document
+    private final Map<String, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<String, Integer> documentLengths = new HashMap<>();
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Add or replace a property in the index
+    public void index(Property property) {
+        if (property.getId() == null) {
+            return;
+        }
+        Map<String, Integer> terms = new HashMap<>();
+        int length = 0;
+        for (String field : new String[]{property.getTitle(), property.getDescription(), property.getLocation()}) {
+            for (String token : tokenize(field)) {
+                terms.merge(token, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(property.getId());
+            String id = property.getId();
+            terms.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, tf));
+            documents.put(id, terms);
+            documentLengths.put(id, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Return up to limit property ids, best BM25 match first
+    public List<String> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int n = documents.size();
+            if (n == 0) {
+                return List.of();
+            }
+            double avgLength = (double) totalLength / n;
+
+            Map<String, Double> scores = new HashMap<>();
+            for (String term : queryTerms.stream().distinct().toList()) {
+                Map<String, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                int df = posting.size();
+                double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+                posting.forEach((id, tf) -> {
+                    double norm = 1 - B + B * documentLengths.get(id) / avgLength;
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * norm);
+                    scores.merge(id, score, Double::sum);
+                });
+            }
+
+            PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<String> ids = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ids.add(top.poll().getKey());
+            }
+            return ids.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(String id) {
+        Map<String, Integer> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<String, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths.remove(id);
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
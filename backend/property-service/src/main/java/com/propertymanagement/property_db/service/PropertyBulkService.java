@@ -0,0 +1,171 @@
+package com.propertymanagement.property_db.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.propertymanagement.property_db.dto.BulkIngestResult;
+import com.propertymanagement.property_db.dto.BulkIngestResult.ItemResult;
+import com.propertymanagement.property_db.dto.BulkIngestResult.Status;
+import com.propertymanagement.property_db.model.Property;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams properties out of a JSON array or NDJSON body and writes them in
+ * unordered bulk batches. Items are parsed one at a time and each batch is
+ * written before more input is read, so memory is bounded by the batch size plus
+ * the failed items reported back.
+ * If the body stops being readable part way, everything before that point is
+ * still written and the result is marked truncated.
+ */
+@Service
+public class PropertyBulkService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${property.bulk.batch-size:500}")
+    private int batchSize;
+
+    // Properties without an id are inserted, properties with an id are upserted
+    public BulkIngestResult ingest(InputStream body) {
+        BulkIngestResult result = new BulkIngestResult();
+        List<Property> batch = new ArrayList<>(batchSize);
+        List<Boolean> inserts = new ArrayList<>(batchSize);
+        List<Integer> positions = new ArrayList<>(batchSize);
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            boolean array = first == JsonToken.START_ARRAY;
+            JsonToken token = array ? parser.nextToken() : first;
+
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode node = objectMapper.readTree(parser);
+                // Item-level failures: the item was read but is not a valid property
+                try {
+                    Property property = objectMapper.treeToValue(node, Property.class);
+                    boolean insert = property.getId() == null;
+                    if (insert) {
+                        property.setId(new ObjectId().toHexString());
+                    }
+                    propertyService.beforeSave(property);
+                    batch.add(property);
+                    inserts.add(insert);
+                    positions.add(index);
+                } catch (IOException | IllegalArgumentException e) {
+                    // Recorded without flushing, so scattered bad items do not break up the batches
+                    result.add(new ItemResult(index, null, Status.FAILED, e.getMessage()));
+                }
+                index++;
+                if (batch.size() >= batchSize) {
+                    flush(batch, inserts, positions, result);
+                }
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            // Malformed JSON or a broken connection: nothing after this point can be read, so store
+            // what was parsed and report where the stream stopped instead of failing the whole request
+            flush(batch, inserts, positions, result);
+            result.truncate(index, "Stream truncated: " + e.getMessage());
+            return result;
+        }
+        flush(batch, inserts, positions, result);
+        return result;
+    }
+
+    // positions holds the input index of each batched item, which skips the invalid ones
+    private void flush(List<Property> batch, List<Boolean> inserts, List<Integer> positions, BulkIngestResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkMode.UNORDERED, Property.class);
+        for (int i = 0; i < batch.size(); i++) {
+            Property property = batch.get(i);
+            if (inserts.get(i)) {
+                ops.insert(property);
+            } else {
+                ops.replaceOne(Query.query(Criteria.where("_id").is(property.getId())), property,
+                        FindAndReplaceOptions.options().upsert());
+            }
+        }
+
+        BulkWriteResult writeResult;
+        Map<Integer, String> errors = new HashMap<>();
+        try {
+            writeResult = ops.execute();
+        } catch (BulkOperationException e) {
+            writeResult = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        } catch (DataAccessException e) {
+            // No per-item outcome (timeout, lost connection): report the whole batch as failed and
+            // keep going, so the results of earlier batches are not lost
+            try {
+                // Some of the batch may have been written anyway
+                propertyService.bumpCollectionVersion();
+            } catch (DataAccessException ignored) {
+                // The next successful write bumps it
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                result.add(new ItemResult(positions.get(i), batch.get(i).getId(), Status.FAILED, e.getMessage()));
+            }
+            clear(batch, inserts, positions);
+            return;
+        }
+        propertyService.bumpCollectionVersion();
+        Set<Integer> upserted = new HashSet<>();
+        for (BulkWriteUpsert upsert : writeResult.getUpserts()) {
+            upserted.add(upsert.getIndex());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Property property = batch.get(i);
+            String error = errors.get(i);
+            if (error != null) {
+                result.add(new ItemResult(positions.get(i), property.getId(), Status.FAILED, error));
+                continue;
+            }
+            propertyService.afterSave(property);
+            Status status = inserts.get(i) || upserted.contains(i) ? Status.INSERTED : Status.UPDATED;
+            result.add(new ItemResult(positions.get(i), property.getId(), status, null));
+        }
+        clear(batch, inserts, positions);
+    }
+
+    private static void clear(List<Property> batch, List<Boolean> inserts, List<Integer> positions) {
+        batch.clear();
+        inserts.clear();
+        positions.clear();
+    }
+}
@@ -0,0 +1,85 @@
+package com.propertymanagement.property_db.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.propertymanagement.property_db.cache.PropertyCache;
+import com.propertymanagement.property_db.model.Property;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies writes from other replicas to this instance: every change to the
+ * properties collection goes through the same afterSave/afterDelete hooks as a
+ * local write, so the cache, search index, geo grid, price snapshot and facet
+ * counters all follow it. Our own writes come back too and are simply applied
+ * again. Change streams need Mongo to run as a replica set, so this is only
+ * active with property.change-stream.enabled=true, which any deployment with
+ * more than one replica must set.
+ */
+@Component
+@ConditionalOnProperty(name = "property.change-stream.enabled", havingValue = "true")
+public class PropertyChangeStreamListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PropertyChangeStreamListener.class);
+
+    private final PropertyService propertyService;
+    private final PropertyCache propertyCache;
+    private final MessageListenerContainer container;
+
+    public PropertyChangeStreamListener(PropertyService propertyService, PropertyCache propertyCache,
+                                        MongoTemplate mongoTemplate) {
+        this.propertyService = propertyService;
+        this.propertyCache = propertyCache;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+    }
+
+    @PostConstruct
+    public void start() {
+        ChangeStreamRequest<Property> request = ChangeStreamRequest.builder(this::onChange)
+                .collection("properties")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, Property.class);
+        container.start();
+        log.info("Listening for property changes to keep the cache and in-memory indexes in sync");
+    }
+
+    @PreDestroy
+    public void stop() {
+        container.stop();
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Property> message) {
+        ChangeStreamDocument<Document> event = message.getRaw();
+        BsonDocument key = event == null ? null : event.getDocumentKey();
+        if (key == null) {
+            // drop/rename/invalidate events carry no document key
+            propertyCache.invalidateAll();
+            propertyService.rebuildIndexes();
+            return;
+        }
+        BsonValue id = key.get("_id");
+        String propertyId = id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+
+        Property property = message.getBody();
+        if (event.getOperationType() == OperationType.DELETE || property == null) {
+            // A null body on an update means the document was deleted before the lookup
+            propertyService.afterDelete(propertyId);
+        } else {
+            propertyService.afterSave(property);
+        }
+    }
+}
@@ -1,36 +1,299 @@
 package com.propertymanagement.property_db.service;
 
+import com.propertymanagement.property_db.cache.PropertyCache;
+import com.propertymanagement.property_db.dto.PriceHistogram;
+import com.propertymanagement.property_db.dto.PriceSummary;
+import com.propertymanagement.property_db.dto.PropertyFacets;
+import com.propertymanagement.property_db.dto.PropertyPage;
 import com.propertymanagement.property_db.model.Property;
 import com.propertymanagement.property_db.repository.PropertyRepository;
+import com.propertymanagement.property_db.search.PropertyFacetCounter;
+import com.propertymanagement.property_db.search.PropertyGeoIndex;
+import com.propertymanagement.property_db.search.PropertyPriceSnapshot;
+import com.propertymanagement.property_db.search.PropertySearchIndex;
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "property.service", histogram = true)
 public class PropertyService {
 
+    // Half the Earth's circumference: any larger radius already covers the whole globe
+    private static final double MAX_RADIUS_KM = 20_038;
+
+    // One document holding a counter that every write to the properties collection bumps
+    static final String VERSION_COLLECTION = "property_versions";
+    static final String VERSION_ID = "properties";
+
     @Autowired
     private PropertyRepository propertyRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PropertyCache propertyCache;
+
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyGeoIndex geoIndex;
+
+    @Autowired
+    private PropertyPriceSnapshot priceSnapshot;
+
+    @Autowired
+    private PropertyFacetCounter facetCounter;
+
+    @Value("${property.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${property.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${property.histogram.max-buckets:200}")
+    private int maxHistogramBuckets;
+
+    @Value("${property.export.batch-size:500}")
+    private int exportBatchSize;
+
     // Create or Update property
     public Property saveProperty(Property property) {
-        return propertyRepository.save(property);
+        beforeSave(property);
+        Property saved = propertyRepository.save(property);
+        bumpCollectionVersion();
+        afterSave(saved);
+        return saved;
+    }
+
+    // Listing pages are keyed on _id as an ObjectId, so a client-chosen id must be one too
+    void beforeSave(Property property) {
+        if (property.getId() != null && !ObjectId.isValid(property.getId())) {
+            throw new IllegalArgumentException("Property id must be a 24-character hex ObjectId: " + property.getId());
+        }
+        property.setLastModified(Instant.now());
+    }
+
+    // Keep the cache and in-memory indexes in step with a property that was just written
+    void afterSave(Property saved) {
+        propertyCache.invalidate(saved.getId());
+        searchIndex.index(saved);
+        geoIndex.index(saved);
+        priceSnapshot.index(saved);
+        facetCounter.index(saved);
+    }
+
+    // ETag for list responses: the shared collection version, one _id lookup, the same on every
+    // replica and independent of their clocks. Bumped after each write, so a list read between
+    // the write and the bump carries the old tag and is fetched again on the next request.
+    public String getCollectionETag() {
+        return collectionETag(mongoTemplate.findById(VERSION_ID, Document.class, VERSION_COLLECTION));
+    }
+
+    // Called after every write to the properties collection, never before it
+    void bumpCollectionVersion() {
+        mongoTemplate.upsert(versionQuery(), versionBump(), VERSION_COLLECTION);
     }
 
-    // Get all properties
-    public List<Property> getAllProperties() {
-        return propertyRepository.findAll();
+    static Query versionQuery() {
+        return Query.query(Criteria.where("_id").is(VERSION_ID));
     }
 
-    // Get property by ID
+    static Update versionBump() {
+        return new Update().inc("version", 1L);
+    }
+
+    static String collectionETag(Document version) {
+        Number value = version == null ? null : version.get("version", Number.class);
+        return "\"v" + Long.toHexString(value == null ? 0 : value.longValue()) + "\"";
+    }
+
+    // Get all properties as a single, final page (unbounded, only used when the caller explicitly opts in)
+    public PropertyPage getAllProperties() {
+        List<Property> items = propertyRepository.findAll();
+        return new PropertyPage(items, null, items.size());
+    }
+
+    // Get one page of properties ordered by _id, starting after the given continuation token
+    public PropertyPage getPropertyPage(Integer limit, String after) {
+        int size = pageSize(limit);
+
+        // Fetch one extra document to know whether another page exists
+        Limit fetch = Limit.of(size + 1);
+        List<Property> items = after == null || after.isBlank()
+                ? propertyRepository.findAllByOrderByIdAsc(fetch)
+                : propertyRepository.findByIdGreaterThanOrderByIdAsc(decodeToken(after), fetch);
+
+        String next = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            next = encodeToken(items.get(size - 1).getId());
+        }
+        return new PropertyPage(items, next, size);
+    }
+
+    // Stream every property straight off a Mongo cursor; the caller must close the stream
+    public Stream<Property> streamAllProperties() {
+        Query query = new Query().cursorBatchSize(exportBatchSize);
+        return mongoTemplate.stream(query, Property.class);
+    }
+
+    // Get property by ID (read-through cache, missing ids are cached too)
     public Optional<Property> getPropertyById(String id) {
-        return propertyRepository.findById(id);
+        return propertyCache.get(id, propertyRepository::findById);
     }
 
     // Delete property by ID
     public void deleteProperty(String id) {
         propertyRepository.deleteById(id);
+        bumpCollectionVersion();
+        afterDelete(id);
+    }
+
+    // Drop a deleted property from the cache and in-memory indexes
+    void afterDelete(String id) {
+        propertyCache.invalidate(id);
+        searchIndex.remove(id);
+        geoIndex.remove(id);
+        priceSnapshot.remove(id);
+        facetCounter.remove(id);
+    }
+
+    // Full-text search over title, description and location, best match first
+    public List<Property> searchProperties(String query, Integer limit) {
+        int size = pageSize(limit);
+        List<String> ids = searchIndex.search(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<Property> results = new ArrayList<>(propertyRepository.findAllById(ids));
+        results.sort(Comparator.comparingInt(p -> rank.get(p.getId())));
+        return results;
+    }
+
+    // Properties within radiusKm of a point, nearest first (2dsphere index in Mongo)
+    public List<Property> findPropertiesNear(double lng, double lat, double radiusKm, Integer limit) {
+        checkNear(lng, lat, radiusKm);
+        return propertyRepository.findByCoordinatesNear(new Point(lng, lat),
+                new Distance(radiusKm, Metrics.KILOMETERS), Limit.of(pageSize(limit)));
+    }
+
+    // Properties inside a map viewport, resolved from the in-memory grid and then loaded by id
+    public List<Property> findPropertiesWithin(double minLng, double minLat, double maxLng, double maxLat, Integer limit) {
+        List<String> ids = geoIndex.within(minLng, minLat, maxLng, maxLat, pageSize(limit));
+        return ids.isEmpty() ? List.of() : propertyRepository.findAllById(ids);
+    }
+
+    // Properties priced within [min, max], cheapest first, from the in-memory price snapshot
+    public List<PriceSummary> findByPriceRange(double min, double max, String location, Integer limit) {
+        return priceSnapshot.select(min, max, location, pageSize(limit), false);
+    }
+
+    // Most (or least) expensive properties, from the in-memory price snapshot
+    public List<PriceSummary> findTopPriced(String location, boolean ascending, Integer limit) {
+        return priceSnapshot.select(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, location, pageSize(limit), !ascending);
+    }
+
+    // Price histogram for the listing page slider, from the in-memory price snapshot
+    public PriceHistogram getPriceHistogram(Double min, Double max, int buckets) {
+        return priceSnapshot.histogram(min, max, Math.min(Math.max(buckets, 1), maxHistogramBuckets));
+    }
+
+    // Listing counts per location and price bucket, from the incrementally maintained counters
+    public PropertyFacets getFacets() {
+        return facetCounter.snapshot();
+    }
+
+    // Correct any drift in the facet counters by rebuilding them from a scan of location and price
+    @Scheduled(fixedDelayString = "${property.facets.reconcile-interval:PT15M}",
+               initialDelayString = "${property.facets.reconcile-interval:PT15M}")
+    public void reconcileFacets() {
+        Query query = new Query().cursorBatchSize(exportBatchSize);
+        query.fields().include("location", "price");
+
+        PropertyFacetCounter.Reconciliation reconciliation = facetCounter.startReconcile();
+        try (Stream<Property> properties = mongoTemplate.stream(query, Property.class)) {
+            properties.forEach(reconciliation::add);
+            facetCounter.finishReconcile(reconciliation);
+        } finally {
+            facetCounter.cancelReconcile(reconciliation);
+        }
+    }
+
+    // Build the in-memory indexes from Mongo once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndexes() {
+        searchIndex.clear();
+        geoIndex.clear();
+        priceSnapshot.clear();
+        facetCounter.clear();
+        try (Stream<Property> properties = streamAllProperties()) {
+            properties.forEach(property -> {
+                searchIndex.index(property);
+                geoIndex.index(property);
+                priceSnapshot.index(property);
+                facetCounter.index(property);
+            });
+        }
+    }
+
+    // Reject NaN, off-globe points and radii that are non-positive or beyond the whole globe
+    static void checkNear(double lng, double lat, double radiusKm) {
+        PropertyGeoIndex.checkLongitude("lng", lng);
+        PropertyGeoIndex.checkLatitude("lat", lat);
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("radiusKm must be greater than 0 and at most " + (long) MAX_RADIUS_KM);
+        }
+    }
+
+    int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
+    }
+
+    static String encodeToken(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeToken(String token) {
+        try {
+            String id = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!ObjectId.isValid(id)) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
     }
 }
@@ -0,0 +1,149 @@
+package com.propertymanagement.property_db.service;
+
+import com.propertymanagement.property_db.cache.PropertyCache;
+import com.propertymanagement.property_db.dto.PropertyPage;
+import com.propertymanagement.property_db.model.Property;
+import com.propertymanagement.property_db.repository.ReactivePropertyRepository;
+import com.propertymanagement.property_db.search.PropertyGeoIndex;
+import com.propertymanagement.property_db.search.PropertySearchIndex;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking variant of PropertyService for the WebFlux execution mode. Reads
+ * and writes go through the reactive Mongo driver; the cache and in-memory
+ * indexes are shared with PropertyService and updated through the same hooks.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePropertyService {
+
+    @Autowired
+    private ReactivePropertyRepository reactivePropertyRepository;
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private PropertyCache propertyCache;
+
+    @Autowired
+    private PropertySearchIndex searchIndex;
+
+    @Autowired
+    private PropertyGeoIndex geoIndex;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    // Create or Update property
+    public Mono<Property> saveProperty(Property property) {
+        return Mono.defer(() -> {
+            propertyService.beforeSave(property);
+            return reactivePropertyRepository.save(property);
+        }).flatMap(saved -> bumpCollectionVersion().thenReturn(saved))
+                .doOnNext(propertyService::afterSave);
+    }
+
+    // Same collection-version list ETag as PropertyService, without blocking the event loop
+    public Mono<String> getCollectionETag() {
+        return reactiveMongoTemplate.findById(PropertyService.VERSION_ID, Document.class, PropertyService.VERSION_COLLECTION)
+                .map(PropertyService::collectionETag)
+                .defaultIfEmpty(PropertyService.collectionETag(null));
+    }
+
+    private Mono<Void> bumpCollectionVersion() {
+        return reactiveMongoTemplate.upsert(PropertyService.versionQuery(), PropertyService.versionBump(),
+                PropertyService.VERSION_COLLECTION).then();
+    }
+
+    // Stream every property, for the NDJSON export
+    public Flux<Property> getAllProperties() {
+        return reactivePropertyRepository.findAll();
+    }
+
+    // Every property as a single, final page (unbounded, only used when the caller explicitly opts in)
+    public Mono<PropertyPage> getAllPropertiesPage() {
+        return reactivePropertyRepository.findAll()
+                .collectList()
+                .map(items -> new PropertyPage(items, null, items.size()));
+    }
+
+    // Get one page of properties ordered by _id, starting after the given continuation token
+    public Mono<PropertyPage> getPropertyPage(Integer limit, String after) {
+        return Mono.defer(() -> {
+            int size = propertyService.pageSize(limit);
+            Limit fetch = Limit.of(size + 1);
+            Flux<Property> items = after == null || after.isBlank()
+                    ? reactivePropertyRepository.findAllByOrderByIdAsc(fetch)
+                    : reactivePropertyRepository.findByIdGreaterThanOrderByIdAsc(PropertyService.decodeToken(after), fetch);
+
+            return items.collectList().map(list -> {
+                if (list.size() <= size) {
+                    return new PropertyPage(list, null, size);
+                }
+                List<Property> page = list.subList(0, size);
+                return new PropertyPage(page, PropertyService.encodeToken(page.get(size - 1).getId()), size);
+            });
+        });
+    }
+
+    // Get property by ID, through the shared read-through cache
+    public Mono<Property> getPropertyById(String id) {
+        Optional<Property> cached = propertyCache.getIfPresent(id);
+        if (cached != null) {
+            return Mono.justOrEmpty(cached);
+        }
+        return reactivePropertyRepository.findById(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .doOnNext(value -> propertyCache.put(id, value))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    // Delete property by ID
+    public Mono<Void> deleteProperty(String id) {
+        return reactivePropertyRepository.deleteById(id)
+                .then(bumpCollectionVersion())
+                .then(Mono.fromRunnable(() -> propertyService.afterDelete(id)));
+    }
+
+    // Full-text search over title, description and location, best match first
+    public Flux<Property> searchProperties(String query, Integer limit) {
+        List<String> ids = searchIndex.search(query, propertyService.pageSize(limit));
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        return reactivePropertyRepository.findAllById(ids)
+                .sort(Comparator.comparingInt(p -> rank.get(p.getId())));
+    }
+
+    // Properties within radiusKm of a point, nearest first
+    public Flux<Property> findPropertiesNear(double lng, double lat, double radiusKm, Integer limit) {
+        PropertyService.checkNear(lng, lat, radiusKm);
+        return reactivePropertyRepository.findByCoordinatesNear(new Point(lng, lat),
+                new Distance(radiusKm, Metrics.KILOMETERS), Limit.of(propertyService.pageSize(limit)));
+    }
+
+    // Properties inside a map viewport, resolved from the in-memory grid and then loaded by id
+    public Flux<Property> findPropertiesWithin(double minLng, double minLat, double maxLng, double maxLat, Integer limit) {
+        List<String> ids = geoIndex.within(minLng, minLat, maxLng, maxLat, propertyService.pageSize(limit));
+        return ids.isEmpty() ? Flux.empty() : reactivePropertyRepository.findAllById(ids);
+    }
+}
@@ -0,0 +1,139 @@
+package com.propertymanagement.property_db.controller;
+
+import com.propertymanagement.property_db.dto.PropertyPage;
+import com.propertymanagement.property_db.model.Property;
+import com.propertymanagement.property_db.service.PropertyService;
+import com.propertymanagement.property_db.service.ReactivePropertyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.reactive.context.AnnotationConfigReactiveWebApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePropertyControllerTest {
+
+    private static final String ETAG = "\"18a4b2c3d4e-2a\"";
+
+    @Mock
+    private ReactivePropertyService reactivePropertyService;
+
+    @Mock
+    private PropertyService propertyService;
+
+    private AnnotationConfigReactiveWebApplicationContext context;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        // A reactive web context, so the controller's @ConditionalOnWebApplication(REACTIVE) matches
+        context = new AnnotationConfigReactiveWebApplicationContext();
+        // Plain singletons: the mocks must not have their own @Autowired fields processed
+        context.getBeanFactory().registerSingleton("reactivePropertyService", reactivePropertyService);
+        context.getBeanFactory().registerSingleton("propertyService", propertyService);
+        context.register(WebFluxConfig.class, ReactivePropertyController.class);
+        context.refresh();
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void listReturnsAPageWithTheCollectionETag() {
+        when(reactivePropertyService.getCollectionETag()).thenReturn(Mono.just(ETAG));
+        when(reactivePropertyService.getPropertyPage(2, null))
+                .thenReturn(Mono.just(new PropertyPage(List.of(property("a")), "next-token", 2)));
+
+        client.get().uri("/api/properties?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETAG)
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo("a")
+                .jsonPath("$.next").isEqualTo("next-token");
+    }
+
+    @Test
+    void matchingETagIsNotModifiedWithoutLoadingTheList() {
+        when(reactivePropertyService.getCollectionETag()).thenReturn(Mono.just(ETAG));
+
+        client.get().uri("/api/properties").header(HttpHeaders.IF_NONE_MATCH, ETAG).exchange()
+                .expectStatus().isNotModified();
+        verify(reactivePropertyService, never()).getPropertyPage(any(), any());
+    }
+
+    @Test
+    void allIsStillAPage() {
+        when(reactivePropertyService.getCollectionETag()).thenReturn(Mono.just(ETAG));
+        when(reactivePropertyService.getAllPropertiesPage())
+                .thenReturn(Mono.just(new PropertyPage(List.of(property("a"), property("b")), null, 2)));
+
+        client.get().uri("/api/properties?all=true").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.next").doesNotExist();
+    }
+
+    @Test
+    void invalidContinuationTokenIsABadRequest() {
+        when(reactivePropertyService.getCollectionETag()).thenReturn(Mono.just(ETAG));
+        when(reactivePropertyService.getPropertyPage(null, "bogus"))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid continuation token")));
+
+        client.get().uri("/api/properties?after=bogus").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Invalid continuation token");
+    }
+
+    @Test
+    void outOfRangeViewportIsABadRequest() {
+        when(reactivePropertyService.findPropertiesWithin(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any()))
+                .thenThrow(new IllegalArgumentException("minLng must be between -180 and 180"));
+
+        client.get().uri("/api/properties/within?minLng=-1e30&minLat=0&maxLng=1e30&maxLat=1").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("minLng must be between -180 and 180");
+    }
+
+    @Test
+    void searchStreamsResults() {
+        when(reactivePropertyService.searchProperties("garden", null)).thenReturn(Flux.just(property("a"), property("b")));
+
+        client.get().uri("/api/properties/search?q=garden").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("a")
+                .jsonPath("$[1].id").isEqualTo("b");
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class WebFluxConfig {
+    }
+
+    private static Property property(String id) {
+        Property property = new Property("Title", "Leeds", 100000, null);
+        property.setId(id);
+        return property;
+    }
+}
@@ -0,0 +1,93 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.dto.PropertyFacets;
+import com.propertymanagement.property_db.model.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class PropertyFacetCounterTest {
+
+    private final PropertyFacetCounter counter = new PropertyFacetCounter(new double[]{100, 200});
+
+    @Test
+    void countsAndMovesProperties() {
+        counter.index(property("a", 50, "Leeds"));
+        counter.index(property("b", 150, "Leeds"));
+        counter.index(property("c", 250, null));
+
+        counter.index(property("a", 300, "York"));
+        counter.remove("b");
+
+        PropertyFacets facets = counter.snapshot();
+        assertThat(facets.getLocations()).containsOnly(entry("York", 1L), entry("unknown", 1L));
+        assertThat(facets.getPrices()).containsExactly(entry("<100", 0L), entry("100-200", 0L), entry("200+", 2L));
+    }
+
+    @Test
+    void bucketBoundariesBelongToTheUpperBucket() {
+        assertThat(counter.bucketOf(99.99)).isEqualTo(0);
+        assertThat(counter.bucketOf(100)).isEqualTo(1);
+        assertThat(counter.bucketOf(200)).isEqualTo(2);
+    }
+
+    @Test
+    void reconcileReplacesEntriesSoLaterUpdatesMoveTheRightCounts() {
+        // Local state has drifted: "a" is counted under Leeds, but Mongo has it under York
+        counter.index(property("a", 50, "Leeds"));
+        counter.index(property("ghost", 50, "Leeds"));
+
+        PropertyFacetCounter.Reconciliation reconciliation = counter.startReconcile();
+        reconciliation.add(property("a", 150, "York"));
+        counter.finishReconcile(reconciliation);
+
+        assertThat(counter.snapshot().getLocations()).containsOnly(entry("York", 1L));
+
+        // The update must take "a" out of York, where it is now counted, not out of Leeds
+        counter.index(property("a", 250, "Bath"));
+        PropertyFacets facets = counter.snapshot();
+        assertThat(facets.getLocations()).containsOnly(entry("Bath", 1L));
+        assertThat(facets.getPrices()).containsExactly(entry("<100", 0L), entry("100-200", 0L), entry("200+", 1L));
+
+        counter.remove("ghost");
+        assertThat(counter.snapshot().getLocations()).containsOnly(entry("Bath", 1L));
+    }
+
+    @Test
+    void writesDuringTheScanWinOverWhatTheScanRead() {
+        PropertyFacetCounter.Reconciliation reconciliation = counter.startReconcile();
+        reconciliation.add(property("a", 50, "Leeds"));
+        reconciliation.add(property("b", 50, "Leeds"));
+
+        // Written after the scan read them
+        counter.index(property("a", 150, "York"));
+        counter.remove("b");
+        counter.index(property("c", 250, "Bath"));
+
+        counter.finishReconcile(reconciliation);
+
+        PropertyFacets facets = counter.snapshot();
+        assertThat(facets.getLocations()).containsOnly(entry("York", 1L), entry("Bath", 1L));
+        assertThat(facets.getPrices()).containsExactly(entry("<100", 0L), entry("100-200", 1L), entry("200+", 1L));
+    }
+
+    @Test
+    void cancelledReconcileLeavesCountsAlone() {
+        counter.index(property("a", 50, "Leeds"));
+
+        PropertyFacetCounter.Reconciliation reconciliation = counter.startReconcile();
+        counter.cancelReconcile(reconciliation);
+        counter.finishReconcile(reconciliation);
+
+        assertThat(counter.snapshot().getLocations()).isEqualTo(Map.of("Leeds", 1L));
+    }
+
+    private static Property property(String id, double price, String location) {
+        Property property = new Property("Title", location, price, null);
+        property.setId(id);
+        return property;
+    }
+}
@@ -0,0 +1,115 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.model.Property;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PropertyGeoIndexTest {
+
+    private final PropertyGeoIndex index = new PropertyGeoIndex(0.05);
+
+    @Test
+    void returnsOnlyPointsInsideTheBox() {
+        index.index(property("in", -0.12, 51.50));
+        index.index(property("edge", -0.10, 51.55));
+        index.index(property("out", 2.35, 48.85));
+
+        assertThat(index.within(-0.2, 51.4, -0.1, 51.6, 10)).containsExactlyInAnyOrder("in", "edge");
+    }
+
+    @Test
+    void boxCrossingTheAntimeridian() {
+        index.index(property("fiji", 179.5, -17.0));
+        index.index(property("samoa", -179.5, -17.0));
+        index.index(property("greenwich", 0, -17.0));
+
+        assertThat(index.within(179, -18, -179, -16, 10)).containsExactlyInAnyOrder("fiji", "samoa");
+    }
+
+    @Test
+    void wholeWorldBoxWalksOccupiedCells() {
+        for (int i = 0; i < 100; i++) {
+            index.index(property("p" + i, -170 + i * 3.4, -80 + i * 1.6));
+        }
+
+        List<String> ids = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> index.within(-180, -90, 180, 90, 1000));
+        assertThat(ids).hasSize(100);
+    }
+
+    @Test
+    void rejectsHugeCoordinatesInsteadOfWalkingTheGrid() {
+        index.index(property("a", 0, 0));
+
+        assertThatThrownBy(() -> index.within(-1e30, -90, 1e30, 90, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minLng");
+        assertThatThrownBy(() -> index.within(-180, -1e30, 180, 1e30, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minLat");
+        assertThatThrownBy(() -> index.within(Double.NEGATIVE_INFINITY, -90, 180, 90, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsNaN() {
+        assertThatThrownBy(() -> index.within(Double.NaN, 0, 1, 1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.within(0, 0, 1, Double.NaN, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsInvertedLatitudes() {
+        assertThatThrownBy(() -> index.within(0, 10, 1, -10, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minLat");
+    }
+
+    @Test
+    void honoursLimit() {
+        for (int i = 0; i < 50; i++) {
+            index.index(property("p" + i, 10 + i * 0.001, 20));
+        }
+
+        assertThat(index.within(9, 19, 11, 21, 7)).hasSize(7);
+    }
+
+    @Test
+    void movesAndDropsProperties() {
+        index.index(property("a", 10, 10));
+        index.index(property("a", 50, 50));
+
+        assertThat(index.within(9, 9, 11, 11, 10)).isEmpty();
+        assertThat(index.within(49, 49, 51, 51, 10)).containsExactly("a");
+
+        index.index(property("a", null));
+        assertThat(index.within(-180, -90, 180, 90, 10)).isEmpty();
+
+        index.index(property("b", 1, 1));
+        index.remove("b");
+        assertThat(index.within(0, 0, 2, 2, 10)).isEmpty();
+    }
+
+    @Test
+    void rejectsNonPositiveCellSize() {
+        assertThatThrownBy(() -> new PropertyGeoIndex(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PropertyGeoIndex(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Property property(String id, double lng, double lat) {
+        return property(id, new GeoJsonPoint(lng, lat));
+    }
+
+    private static Property property(String id, GeoJsonPoint coordinates) {
+        Property property = new Property("Title", "Somewhere", 100000, null);
+        property.setId(id);
+        property.setCoordinates(coordinates);
+        return property;
+    }
+}
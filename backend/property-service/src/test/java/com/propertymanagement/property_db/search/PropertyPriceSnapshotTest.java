@@ -0,0 +1,125 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.dto.PriceHistogram;
+import com.propertymanagement.property_db.dto.PriceSummary;
+import com.propertymanagement.property_db.model.Property;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class PropertyPriceSnapshotTest {
+
+    private final PropertyPriceSnapshot snapshot = new PropertyPriceSnapshot();
+
+    @Test
+    void selectsRangeCheapestFirst() {
+        snapshot.index(property("a", 300, "Leeds"));
+        snapshot.index(property("b", 100, "York"));
+        snapshot.index(property("c", 200, "Leeds"));
+        snapshot.index(property("d", 400, "Leeds"));
+
+        assertThat(ids(snapshot.select(150, 350, null, 10, false))).containsExactly("c", "a");
+        assertThat(ids(snapshot.select(150, 400, null, 10, true))).containsExactly("d", "a", "c");
+    }
+
+    @Test
+    void topNMatchesAFullSort() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            snapshot.index(property("p" + i, random.nextInt(1_000_000), i % 2 == 0 ? "Leeds" : "York"));
+        }
+
+        List<PriceSummary> top = snapshot.select(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, "Leeds", 25, true);
+        List<PriceSummary> all = snapshot.select(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, "Leeds", 5000, true);
+
+        assertThat(all).hasSize(2500);
+        assertThat(all).isSortedAccordingTo((x, y) -> Double.compare(y.getPrice(), x.getPrice()));
+        assertThat(top).extracting(PriceSummary::getPrice)
+                .containsExactlyElementsOf(all.subList(0, 25).stream().map(PriceSummary::getPrice).toList());
+        assertThat(top).allMatch(p -> p.getLocation().equals("Leeds"));
+    }
+
+    @Test
+    void unknownLocationMatchesNothing() {
+        snapshot.index(property("a", 100, "Leeds"));
+
+        assertThat(snapshot.select(0, 1000, "Paris", 10, false)).isEmpty();
+    }
+
+    @Test
+    void updatesInPlaceAndRemovesBySwappingTheLastRow() {
+        snapshot.index(property("a", 100, "Leeds"));
+        snapshot.index(property("b", 200, "Leeds"));
+        snapshot.index(property("c", 300, "York"));
+
+        snapshot.index(property("a", 250, "York"));
+        snapshot.remove("a");
+        snapshot.remove("missing");
+
+        assertThat(snapshot.select(0, 1000, null, 10, false))
+                .extracting(PriceSummary::getId, PriceSummary::getLocation, PriceSummary::getPrice)
+                .containsExactly(
+                        tuple("b", "Leeds", 200.0),
+                        tuple("c", "York", 300.0));
+
+        snapshot.remove("c");
+        snapshot.index(property("d", 50, null));
+        assertThat(ids(snapshot.select(0, 1000, null, 10, false))).containsExactly("d", "b");
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        for (int i = 0; i < 3000; i++) {
+            snapshot.index(property("p" + i, i, null));
+        }
+
+        assertThat(ids(snapshot.select(2998, 5000, null, 10, false))).containsExactly("p2998", "p2999");
+    }
+
+    @Test
+    void histogramOverExplicitBounds() {
+        snapshot.index(property("a", 0, null));
+        snapshot.index(property("b", 49, null));
+        snapshot.index(property("c", 50, null));
+        snapshot.index(property("d", 100, null));
+        snapshot.index(property("e", 150, null));
+
+        PriceHistogram histogram = snapshot.histogram(0.0, 100.0, 2);
+
+        assertThat(histogram.getBucketWidth()).isEqualTo(50.0);
+        // The upper bound falls into the last bucket; prices outside the bounds are skipped
+        assertThat(histogram.getCounts()).containsExactly(2, 2);
+    }
+
+    @Test
+    void histogramDefaultsToTheCurrentPriceRange() {
+        snapshot.index(property("a", 100, null));
+        snapshot.index(property("b", 500, null));
+
+        PriceHistogram histogram = snapshot.histogram(null, null, 4);
+
+        assertThat(histogram.getMin()).isEqualTo(100.0);
+        assertThat(histogram.getMax()).isEqualTo(500.0);
+        assertThat(histogram.getCounts()).containsExactly(1, 0, 0, 1);
+    }
+
+    @Test
+    void emptySnapshot() {
+        assertThat(snapshot.select(0, 1000, null, 10, false)).isEmpty();
+        assertThat(snapshot.histogram(null, null, 3).getCounts()).containsExactly(0, 0, 0);
+    }
+
+    private static List<String> ids(List<PriceSummary> rows) {
+        return rows.stream().map(PriceSummary::getId).toList();
+    }
+
+    private static Property property(String id, double price, String location) {
+        Property property = new Property("Title", location, price, null);
+        property.setId(id);
+        return property;
+    }
+}
@@ -0,0 +1,74 @@
+package com.propertymanagement.property_db.search;
+
+import com.propertymanagement.property_db.model.Property;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertySearchIndexTest {
+
+    private final PropertySearchIndex index = new PropertySearchIndex();
+
+    @Test
+    void ranksHigherTermFrequencyFirst() {
+        index.index(property("a", "Garden flat", "Quiet street", "Leeds"));
+        index.index(property("b", "Garden house", "Large garden with a garden shed", "Leeds"));
+        index.index(property("c", "Studio", "Close to the station", "York"));
+
+        assertThat(index.search("garden", 10)).containsExactly("b", "a");
+    }
+
+    @Test
+    void rareTermsOutweighCommonOnes() {
+        index.index(property("a", "Flat with balcony", null, "London"));
+        index.index(property("b", "Flat", null, "London"));
+        index.index(property("c", "Flat", null, "London"));
+
+        // "flat" is in every document, "balcony" only in one
+        assertThat(index.search("flat balcony", 10).get(0)).isEqualTo("a");
+    }
+
+    @Test
+    void matchesAcrossFieldsIgnoringCaseAndPunctuation() {
+        index.index(property("a", "Loft", "Open-plan, BRIGHT", "Bristol"));
+
+        assertThat(index.search("bright bristol", 10)).containsExactly("a");
+        assertThat(index.search("open plan", 10)).containsExactly("a");
+    }
+
+    @Test
+    void honoursLimit() {
+        for (int i = 0; i < 20; i++) {
+            index.index(property("p" + i, "Cottage " + i, null, null));
+        }
+
+        assertThat(index.search("cottage", 5)).hasSize(5);
+        assertThat(index.search("cottage", 0)).isEmpty();
+    }
+
+    @Test
+    void reindexReplacesAndRemoveDrops() {
+        index.index(property("a", "Bungalow", null, null));
+        index.index(property("a", "Penthouse", null, null));
+
+        assertThat(index.search("bungalow", 10)).isEmpty();
+        assertThat(index.search("penthouse", 10)).containsExactly("a");
+
+        index.remove("a");
+        assertThat(index.search("penthouse", 10)).isEmpty();
+    }
+
+    @Test
+    void blankQueryMatchesNothing() {
+        index.index(property("a", "Flat", null, null));
+
+        assertThat(index.search("  ", 10)).isEmpty();
+        assertThat(index.search("!!", 10)).isEmpty();
+    }
+
+    private static Property property(String id, String title, String description, String location) {
+        Property property = new Property(title, location, 100000, description);
+        property.setId(id);
+        return property;
+    }
+}
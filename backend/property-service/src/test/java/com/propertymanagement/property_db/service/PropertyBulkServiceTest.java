@@ -0,0 +1,132 @@
+package com.propertymanagement.property_db.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.propertymanagement.property_db.dto.BulkIngestResult;
+import com.propertymanagement.property_db.dto.BulkIngestResult.ItemResult;
+import com.propertymanagement.property_db.dto.BulkIngestResult.Status;
+import com.propertymanagement.property_db.model.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyBulkServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PropertyService propertyService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private PropertyBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkService, "batchSize", 2);
+        lenient().when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulkOperations);
+        lenient().when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+    }
+
+    @Test
+    void writesEveryItemOfAWellFormedArray() {
+        BulkIngestResult result = bulkService.ingest(body("[{\"title\":\"a\"},{\"title\":\"b\"},{\"title\":\"c\"}]"));
+
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.getInserted()).isEqualTo(3);
+        verify(bulkOperations, times(2)).execute();
+        verify(propertyService, times(3)).afterSave(any(Property.class));
+    }
+
+    @Test
+    void syntaxErrorFlushesWhatWasParsedAndMarksTheResultTruncated() {
+        BulkIngestResult result = bulkService.ingest(body("[{\"title\":\"a\"},{\"title\":\"b\"},{\"title\":\"c\"},{\"title\": ]"));
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getInserted()).isEqualTo(3);
+        ItemResult last = result.getFailures().get(0);
+        assertThat(result.getFailures()).hasSize(1);
+        assertThat(last.getIndex()).isEqualTo(3);
+        assertThat(last.getError()).startsWith("Stream truncated");
+        // One full batch of two, then the partial batch flushed before giving up
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void malformedNdjsonLineStopsTheStream() {
+        BulkIngestResult result = bulkService.ingest(body("{\"title\":\"a\"}\n{\"title\" \"b\"}\n{\"title\":\"c\"}\n"));
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getFailures()).extracting(ItemResult::getIndex, ItemResult::getStatus)
+                .containsExactly(tuple(1, Status.FAILED));
+    }
+
+    @Test
+    void invalidItemFailsAloneAndTheRestIsWritten() {
+        BulkIngestResult result = bulkService.ingest(body("[{\"title\":\"a\"},{\"price\":\"not a number\"},{\"title\":\"c\"}]"));
+
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getFailures()).extracting(ItemResult::getIndex).containsExactly(1);
+        // The bad item does not flush the batch early: a and c go out together
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void writeErrorFailsTheItemsOfItsBatchOnly() {
+        when(bulkOperations.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        BulkIngestResult result = bulkService.ingest(body("[{\"title\":\"a\"},{\"title\":\"b\"},{\"price\":\"x\"},{\"title\":\"d\"},{\"title\":\"e\"}]"));
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getInserted()).isEqualTo(2);
+        // Item 2 is invalid; items 3 and 4 were in the batch the write error hit
+        assertThat(result.getFailures()).extracting(ItemResult::getIndex).containsExactly(2, 3, 4);
+        assertThat(result.getFailures().subList(1, 3)).extracting(ItemResult::getError)
+                .containsOnly("connection lost");
+        verify(propertyService, times(2)).afterSave(any(Property.class));
+    }
+
+    @Test
+    void bodyThatIsNotJsonAtAll() {
+        BulkIngestResult result = bulkService.ingest(body("not json"));
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getFailures()).singleElement().extracting(ItemResult::getIndex).isEqualTo(0);
+    }
+
+    private static ByteArrayInputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.propertymanagement.property_db.service;
+
+import com.propertymanagement.property_db.cache.PropertyCache;
+import com.propertymanagement.property_db.model.Property;
+import com.propertymanagement.property_db.repository.PropertyRepository;
+import com.propertymanagement.property_db.search.PropertyFacetCounter;
+import com.propertymanagement.property_db.search.PropertyGeoIndex;
+import com.propertymanagement.property_db.search.PropertyPriceSnapshot;
+import com.propertymanagement.property_db.search.PropertySearchIndex;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyCollectionETagTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PropertyCache propertyCache;
+
+    @Mock
+    private PropertySearchIndex searchIndex;
+
+    @Mock
+    private PropertyGeoIndex geoIndex;
+
+    @Mock
+    private PropertyPriceSnapshot priceSnapshot;
+
+    @Mock
+    private PropertyFacetCounter facetCounter;
+
+    @InjectMocks
+    private PropertyService propertyService;
+
+    @Test
+    void tagFollowsTheSharedVersionOnly() {
+        assertThat(PropertyService.collectionETag(new Document("version", 42L)))
+                .isEqualTo(PropertyService.collectionETag(new Document("version", 42)))
+                .isNotEqualTo(PropertyService.collectionETag(new Document("version", 43L)))
+                .startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void noWritesYet() {
+        assertThat(PropertyService.collectionETag(null)).isEqualTo("\"v0\"");
+        assertThat(PropertyService.collectionETag(new Document())).isEqualTo("\"v0\"");
+    }
+
+    @Test
+    void readIsOneLookupById() {
+        when(mongoTemplate.findById(PropertyService.VERSION_ID, Document.class, PropertyService.VERSION_COLLECTION))
+                .thenReturn(new Document("version", 7L));
+
+        assertThat(propertyService.getCollectionETag()).isEqualTo("\"v7\"");
+    }
+
+    @Test
+    void saveAndDeleteBumpTheVersionAfterTheWrite() {
+        Property property = new Property("Title", "Leeds", 100000, null);
+        when(propertyRepository.save(property)).thenReturn(property);
+
+        propertyService.saveProperty(property);
+        propertyService.deleteProperty("a");
+
+        InOrder order = inOrder(propertyRepository, mongoTemplate);
+        order.verify(propertyRepository).save(property);
+        order.verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(PropertyService.VERSION_COLLECTION));
+        order.verify(propertyRepository).deleteById("a");
+        order.verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(PropertyService.VERSION_COLLECTION));
+    }
+}
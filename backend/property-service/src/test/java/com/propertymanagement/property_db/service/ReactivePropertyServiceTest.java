@@ -0,0 +1,92 @@
+package com.propertymanagement.property_db.service;
+
+import com.propertymanagement.property_db.cache.PropertyCache;
+import com.propertymanagement.property_db.dto.PropertyPage;
+import com.propertymanagement.property_db.model.Property;
+import com.propertymanagement.property_db.repository.ReactivePropertyRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePropertyServiceTest {
+
+    @Mock
+    private ReactivePropertyRepository reactivePropertyRepository;
+
+    @Mock
+    private PropertyService propertyService;
+
+    @Mock
+    private PropertyCache propertyCache;
+
+    @InjectMocks
+    private ReactivePropertyService service;
+
+    @Test
+    void fullPageCarriesATokenForTheNextOne() {
+        String a = new ObjectId().toHexString();
+        String b = new ObjectId().toHexString();
+        String c = new ObjectId().toHexString();
+        when(propertyService.pageSize(2)).thenReturn(2);
+        when(reactivePropertyRepository.findAllByOrderByIdAsc(Limit.of(3)))
+                .thenReturn(Flux.just(property(a), property(b), property(c)));
+        when(reactivePropertyRepository.findByIdGreaterThanOrderByIdAsc(b, Limit.of(3)))
+                .thenReturn(Flux.just(property(c)));
+
+        PropertyPage first = service.getPropertyPage(2, null).block();
+        assertThat(first.getItems()).extracting(Property::getId).containsExactly(a, b);
+        assertThat(first.getNext()).isNotNull();
+
+        PropertyPage second = service.getPropertyPage(2, first.getNext()).block();
+        assertThat(second.getItems()).extracting(Property::getId).containsExactly(c);
+        assertThat(second.getNext()).isNull();
+    }
+
+    @Test
+    void invalidTokenFailsTheMono() {
+        when(propertyService.pageSize(null)).thenReturn(20);
+        String notAnObjectId = PropertyService.encodeToken("custom-id");
+
+        assertThatThrownBy(() -> service.getPropertyPage(null, notAnObjectId).block())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cachedLookupSkipsMongo() {
+        when(propertyCache.getIfPresent("a")).thenReturn(Optional.of(property("a")));
+
+        assertThat(service.getPropertyById("a").block()).extracting(Property::getId).isEqualTo("a");
+        verify(reactivePropertyRepository, never()).findById(any(String.class));
+    }
+
+    @Test
+    void missingPropertyIsCachedAsEmpty() {
+        when(propertyCache.getIfPresent("gone")).thenReturn(null);
+        when(reactivePropertyRepository.findById("gone")).thenReturn(Mono.empty());
+
+        assertThat(service.getPropertyById("gone").block()).isNull();
+        verify(propertyCache).put("gone", Optional.empty());
+    }
+
+    private static Property property(String id) {
+        Property property = new Property("Title", "Leeds", 100000, null);
+        property.setId(id);
+        return property;
+    }
+}